@@ -1,3 +1,4 @@
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
@@ -6,6 +7,7 @@ public class CoffeeService {
     private final IPriceCalculator calculator;
     private final BiConsumer<IOrder, Double> saveOrder;
     private final Consumer<String> notify;
+    private final AtomicLong nextOrderId = new AtomicLong();
 
     public CoffeeService(IPriceCalculator calculator, BiConsumer<IOrder, Double> saveOrder, Consumer<String> notify) {
         this.calculator = calculator;
@@ -14,9 +16,22 @@ public class CoffeeService {
     }
 
     public double process(IOrder order) {
+        long orderId = nextOrderId.incrementAndGet();
+
+        PipelineStageEvent pricing = new PipelineStageEvent(orderId, "PRICING");
+        pricing.begin();
         double total = calculator.calculate(order);
+        pricing.commit();
+
+        PipelineStageEvent save = new PipelineStageEvent(orderId, "SAVE");
+        save.begin();
         saveOrder.accept(order, total);
+        save.commit();
+
+        PipelineStageEvent notification = new PipelineStageEvent(orderId, "NOTIFY");
+        notification.begin();
         notify.accept(String.format("Order ready: %s Total: $%.2f", order.describe(), total));
+        notification.commit();
         return total;
     }
 }
@@ -1,6 +1,7 @@
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
@@ -14,11 +15,16 @@ public class Main {
         basePrices.put("latte", 3.5);
         basePrices.put("cappuccino", 3.8);
 
-        PriceCalculator calculator = new PriceCalculator(
+        RulePriceCalculator calculator = new RulePriceCalculator(
                 basePrices,
+                new HashSet<>(Arrays.asList("small", "medium", "large")),
                 Arrays.asList(
-                        PriceCalculator::applySizeModifier,
-                        PriceCalculator::applyExtrasModifier
+                        PricingRule.surcharge("Medium size", 0.5).forSize("medium"),
+                        PricingRule.surcharge("Large size", 1.0).forSize("large"),
+                        PricingRule.surcharge("Soy milk", 0.4).withExtra("soy"),
+                        PricingRule.surcharge("Oat milk", 0.5).withExtra("oat"),
+                        PricingRule.surcharge("Vanilla syrup", 0.6).withExtra("vanilla"),
+                        PricingRule.surcharge("Caramel syrup", 0.7).withExtra("caramel")
                 )
         );
 
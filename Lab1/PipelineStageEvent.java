@@ -0,0 +1,25 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Java Flight Recorder event for one stage of CoffeeService.process, correlated by order id.
+@Name("lab1.PipelineStage")
+@Label("Pipeline Stage")
+@Category({"Lab1", "Orders"})
+@Description("Time spent by one order in one stage of CoffeeService")
+@StackTrace(false)
+public class PipelineStageEvent extends Event {
+    @Label("Order Id")
+    final long orderId;
+
+    @Label("Stage")
+    final String stage;
+
+    public PipelineStageEvent(long orderId, String stage) {
+        this.orderId = orderId;
+        this.stage = stage;
+    }
+}
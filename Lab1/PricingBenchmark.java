@@ -0,0 +1,143 @@
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+// Compares the indexed rule set with evaluating every rule linearly (the
+// PriceCalculator approach) as the number of promotions grows, for two
+// catalogues: a mixed one where most rules target other beverages, extras or
+// stores, and a crowded one where every rule targets the latte and rules differ
+// only by size and half-hour window. The crowded case is the index's worst
+// case: the latte orders still pay for the rules that share their size and
+// hour, about 1/72 of the catalogue.
+public class PricingBenchmark {
+    private static final String[] SIZES = {"small", "medium", "large"};
+    private static final String STORE = "store-0";
+    private static final int OTHER_STORES = 40;
+    private static final int[] RULE_COUNTS = {10, 100, 1000, 10000};
+    private static final int RULE_EVALUATIONS_PER_RUN = 20_000_000;
+
+    public static void main(String[] args) {
+        Map<String, Double> basePrices = new HashMap<>();
+        basePrices.put("espresso", 2.5);
+        basePrices.put("latte", 3.5);
+        basePrices.put("cappuccino", 3.8);
+        Clock clock = Clock.fixed(Instant.parse("2024-01-01T15:30:00Z"), ZoneOffset.UTC);
+        LocalTime now = LocalTime.now(clock);
+
+        List<IOrder> orders = Arrays.asList(
+                new CoffeeOrder("latte", "large", Arrays.asList("oat", "vanilla")),
+                new CoffeeOrder("espresso", "small", new ArrayList<>()),
+                new CoffeeOrder("cappuccino", "medium", Arrays.asList("caramel"))
+        );
+
+        System.out.printf("%8s %10s %16s %16s%n", "rules", "catalogue", "indexed ns/op", "linear ns/op");
+        for (boolean crowded : new boolean[] {false, true}) {
+            for (int ruleCount : RULE_COUNTS) {
+                List<PricingRule> rules = crowded ? generateCrowdedRules(ruleCount) : generateRules(ruleCount);
+                RulePriceCalculator indexed = new RulePriceCalculator(
+                        basePrices, new HashSet<>(Arrays.asList(SIZES)), rules, STORE, clock);
+                int rounds = Math.max(2_000, RULE_EVALUATIONS_PER_RUN / ruleCount);
+
+                double indexedNanos = measure(() -> {
+                    double sum = 0;
+                    for (IOrder order : orders) {
+                        sum += indexed.calculate(order);
+                    }
+                    return sum;
+                }, rounds);
+                double linearNanos = measure(() -> {
+                    double sum = 0;
+                    for (IOrder order : orders) {
+                        double total = basePrices.get(order.getBeverage());
+                        for (PricingRule rule : rules) {
+                            if (rule.appliesToStore(STORE) && rule.matches(order, now)) {
+                                total = rule.apply(order, total);
+                            }
+                        }
+                        sum += Math.round(total * 100.0) / 100.0;
+                    }
+                    return sum;
+                }, rounds);
+                System.out.printf("%8d %10s %16.1f %16.1f%n", ruleCount, crowded ? "crowded" : "mixed",
+                        indexedNanos / orders.size(), linearNanos / orders.size());
+            }
+        }
+    }
+
+    // Four rules apply to the sample orders; the rest are seasonal-menu, extras
+    // and other stores' promotions that never match them, as in a real catalogue
+    // where each order is eligible for only a few of the running promotions.
+    private static List<PricingRule> generateRules(int count) {
+        List<PricingRule> rules = baseRules();
+        for (int i = rules.size(); i < count; i++) {
+            String seasonal = "seasonal-" + (i % 50);
+            switch (i % 4) {
+                case 0:
+                    rules.add(PricingRule.discount("Seasonal promo " + i, 5).forBeverage(seasonal));
+                    break;
+                case 1:
+                    rules.add(PricingRule.surcharge("Seasonal size " + i, -0.1)
+                            .forBeverage(seasonal).forSize(SIZES[i % SIZES.length]));
+                    break;
+                case 2:
+                    int hour = i % 24;
+                    rules.add(PricingRule.discount("Seasonal hour " + i, 10).forBeverage(seasonal)
+                            .between(LocalTime.of(hour, 0), LocalTime.of((hour + 1) % 24, 0)));
+                    break;
+                default:
+                    rules.add(PricingRule.discount("Store promo " + i, 5)
+                            .forStore("store-" + (1 + i % OTHER_STORES)));
+                    break;
+            }
+        }
+        return rules;
+    }
+
+    // Every extra rule is a latte promotion for one size and one half-hour window.
+    private static List<PricingRule> generateCrowdedRules(int count) {
+        List<PricingRule> rules = baseRules();
+        for (int i = rules.size(); i < count; i++) {
+            LocalTime from = LocalTime.of(0, 0).plusMinutes(30L * (i % 48));
+            rules.add(PricingRule.discount("Latte slot " + i, 1).forBeverage("latte")
+                    .forSize(SIZES[i % SIZES.length]).between(from, from.plusMinutes(30)));
+        }
+        return rules;
+    }
+
+    private static List<PricingRule> baseRules() {
+        List<PricingRule> rules = new ArrayList<>();
+        rules.add(PricingRule.surcharge("Oat milk", 0.5).withExtra("oat"));
+        rules.add(PricingRule.surcharge("Large size", 1.0).forSize("large"));
+        rules.add(PricingRule.discount("Happy hour", 20).between(LocalTime.of(15, 0), LocalTime.of(17, 0)));
+        rules.add(PricingRule.discount("Store opening week", 10).forStore(STORE));
+        return rules;
+    }
+
+    private static double measure(Workload workload, int rounds) {
+        double sink = 0;
+        for (int i = 0; i < rounds; i++) {
+            sink += workload.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            sink += workload.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        // Keeps the JIT from discarding the work.
+        if (sink == 42.0) {
+            System.out.println();
+        }
+        return elapsed / (double) rounds;
+    }
+
+    private interface Workload {
+        double run();
+    }
+}
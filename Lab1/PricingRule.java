@@ -0,0 +1,150 @@
+import java.time.LocalTime;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.function.BiFunction;
+
+// A single promotion or surcharge. Conditions left unset match every order, so
+// new rules are composed from the same pieces instead of new modifier code.
+// A rule on an extra applies once for every time the order lists that extra.
+public final class PricingRule {
+    private final String name;
+    private final String beverage;
+    private final String size;
+    private final String extra;
+    private final String store;
+    private final LocalTime from;
+    private final LocalTime until;
+    private final BiFunction<IOrder, Double, Double> adjustment;
+
+    private PricingRule(String name, String beverage, String size, String extra, String store,
+                        LocalTime from, LocalTime until, BiFunction<IOrder, Double, Double> adjustment) {
+        this.name = name;
+        this.beverage = beverage;
+        this.size = size;
+        this.extra = extra;
+        this.store = store;
+        this.from = from;
+        this.until = until;
+        this.adjustment = adjustment;
+    }
+
+    public static PricingRule of(String name, BiFunction<IOrder, Double, Double> adjustment) {
+        return new PricingRule(Objects.requireNonNull(name, "name"), null, null, null, null, null, null,
+                Objects.requireNonNull(adjustment, "adjustment"));
+    }
+
+    public static PricingRule surcharge(String name, double amount) {
+        return of(name, (order, total) -> total + amount);
+    }
+
+    public static PricingRule discount(String name, double percent) {
+        return of(name, (order, total) -> total * (1.0 - percent / 100.0));
+    }
+
+    public PricingRule forBeverage(String beverage) {
+        return new PricingRule(name, normalize(beverage), size, extra, store, from, until, adjustment);
+    }
+
+    public PricingRule forSize(String size) {
+        return new PricingRule(name, beverage, normalize(size), extra, store, from, until, adjustment);
+    }
+
+    public PricingRule withExtra(String extra) {
+        return new PricingRule(name, beverage, size, normalize(extra), store, from, until, adjustment);
+    }
+
+    // Store rules are resolved when a calculator builds its rule set, not per order.
+    public PricingRule forStore(String store) {
+        return new PricingRule(name, beverage, size, extra, normalize(store), from, until, adjustment);
+    }
+
+    // Active from `from` (inclusive) until `until` (exclusive); may wrap past midnight.
+    public PricingRule between(LocalTime from, LocalTime until) {
+        if (from.equals(until)) {
+            throw new IllegalArgumentException("Time window must not be empty");
+        }
+        return new PricingRule(name, beverage, size, extra, store, from, until, adjustment);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getBeverage() {
+        return beverage;
+    }
+
+    public String getSize() {
+        return size;
+    }
+
+    public String getExtra() {
+        return extra;
+    }
+
+    public String getStore() {
+        return store;
+    }
+
+    public LocalTime getFrom() {
+        return from;
+    }
+
+    public LocalTime getUntil() {
+        return until;
+    }
+
+    public boolean hasTimeWindow() {
+        return from != null;
+    }
+
+    public boolean appliesToStore(String store) {
+        return this.store == null || this.store.equals(normalize(store));
+    }
+
+    public boolean matches(IOrder order, LocalTime time) {
+        if (beverage != null && !beverage.equals(normalize(order.getBeverage()))) {
+            return false;
+        }
+        if (size != null && !size.equals(normalize(order.getSize()))) {
+            return false;
+        }
+        if (extra != null && countExtra(order) == 0) {
+            return false;
+        }
+        return !hasTimeWindow() || isActiveAt(time);
+    }
+
+    public double apply(IOrder order, double runningTotal) {
+        int times = extra == null ? 1 : countExtra(order);
+        double total = runningTotal;
+        for (int i = 0; i < times; i++) {
+            total = adjustment.apply(order, total);
+        }
+        return total;
+    }
+
+    private int countExtra(IOrder order) {
+        if (order.getExtras() == null) {
+            return 0;
+        }
+        int count = 0;
+        for (String candidate : order.getExtras()) {
+            if (extra.equals(normalize(candidate))) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private boolean isActiveAt(LocalTime time) {
+        if (from.isBefore(until)) {
+            return !time.isBefore(from) && time.isBefore(until);
+        }
+        return !time.isBefore(from) || time.isBefore(until);
+    }
+
+    static String normalize(String value) {
+        return value == null ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+}
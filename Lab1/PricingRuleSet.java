@@ -0,0 +1,188 @@
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Immutable index over a list of pricing rules. Rules are filed in a small tree
+// with one level per condition they set, in the order extra, beverage, size and
+// hour of day, so a rule for large lattes at 15:00 sits under latte -> large ->
+// 15. An order only walks the branches for its own extras, beverage, size and
+// hour, and even a crowded beverage only costs the rules that share the order's
+// size and hour. Rules for other stores are dropped when the set is built.
+// Matching rules are applied in the order they were given; each is listed once,
+// and PricingRule.apply repeats it for an extra the order lists more than once.
+public final class PricingRuleSet {
+    private static final int HOURS_PER_DAY = 24;
+    private static final int BY_EXTRA = 0;
+    private static final int BY_BEVERAGE = 1;
+    private static final int BY_SIZE = 2;
+    private static final int BY_HOUR = 3;
+
+    private final int size;
+    private final Node root = new Node();
+
+    public PricingRuleSet(List<PricingRule> rules) {
+        this(rules, null);
+    }
+
+    public PricingRuleSet(List<PricingRule> rules, String store) {
+        int indexed = 0;
+        for (int i = 0; i < rules.size(); i++) {
+            PricingRule rule = rules.get(i);
+            if (rule.appliesToStore(store)) {
+                root.add(new Entry(i, rule), BY_EXTRA);
+                indexed++;
+            }
+        }
+        this.size = indexed;
+    }
+
+    public static PricingRuleSet empty() {
+        return new PricingRuleSet(Collections.emptyList());
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public List<PricingRule> matching(IOrder order, LocalTime time) {
+        List<String> extras = new ArrayList<>();
+        if (order.getExtras() != null) {
+            for (String extra : order.getExtras()) {
+                String key = PricingRule.normalize(extra);
+                if (!extras.contains(key)) {
+                    extras.add(key);
+                }
+            }
+        }
+        Lookup lookup = new Lookup(extras, PricingRule.normalize(order.getBeverage()),
+                PricingRule.normalize(order.getSize()), time.getHour());
+
+        List<Entry> candidates = new ArrayList<>();
+        root.collect(lookup, candidates);
+        candidates.sort(null);
+        List<PricingRule> matches = new ArrayList<>(candidates.size());
+        for (Entry candidate : candidates) {
+            if (candidate.rule.matches(order, time)) {
+                matches.add(candidate.rule);
+            }
+        }
+        return matches;
+    }
+
+    private static List<Integer> hoursCovered(LocalTime from, LocalTime until) {
+        List<Integer> hours = new ArrayList<>();
+        int last = until.getHour();
+        if (until.getMinute() == 0 && until.getSecond() == 0 && until.getNano() == 0) {
+            last = (last + HOURS_PER_DAY - 1) % HOURS_PER_DAY;
+        }
+        int hour = from.getHour();
+        if (until.isBefore(from) && hour == last) {
+            last = (hour + HOURS_PER_DAY - 1) % HOURS_PER_DAY;
+        }
+        while (true) {
+            hours.add(hour);
+            if (hour == last) {
+                return hours;
+            }
+            hour = (hour + 1) % HOURS_PER_DAY;
+        }
+    }
+
+    private static final class Node {
+        private final List<Entry> rules = new ArrayList<>();
+        private Map<String, Node> byExtra;
+        private Map<String, Node> byBeverage;
+        private Map<String, Node> bySize;
+        private Node[] byHour;
+
+        // Files the rule under its first condition at or after `level`; rules with
+        // no condition left stay on this node.
+        void add(Entry entry, int level) {
+            PricingRule rule = entry.rule;
+            if (level <= BY_EXTRA && rule.getExtra() != null) {
+                if (byExtra == null) {
+                    byExtra = new HashMap<>();
+                }
+                byExtra.computeIfAbsent(rule.getExtra(), key -> new Node()).add(entry, BY_BEVERAGE);
+            } else if (level <= BY_BEVERAGE && rule.getBeverage() != null) {
+                if (byBeverage == null) {
+                    byBeverage = new HashMap<>();
+                }
+                byBeverage.computeIfAbsent(rule.getBeverage(), key -> new Node()).add(entry, BY_SIZE);
+            } else if (level <= BY_SIZE && rule.getSize() != null) {
+                if (bySize == null) {
+                    bySize = new HashMap<>();
+                }
+                bySize.computeIfAbsent(rule.getSize(), key -> new Node()).add(entry, BY_HOUR);
+            } else if (level <= BY_HOUR && rule.hasTimeWindow()) {
+                if (byHour == null) {
+                    byHour = new Node[HOURS_PER_DAY];
+                }
+                for (int hour : hoursCovered(rule.getFrom(), rule.getUntil())) {
+                    if (byHour[hour] == null) {
+                        byHour[hour] = new Node();
+                    }
+                    byHour[hour].add(entry, BY_HOUR + 1);
+                }
+            } else {
+                rules.add(entry);
+            }
+        }
+
+        void collect(Lookup lookup, List<Entry> candidates) {
+            candidates.addAll(rules);
+            if (byExtra != null) {
+                for (String extra : lookup.extras) {
+                    collect(byExtra.get(extra), lookup, candidates);
+                }
+            }
+            if (byBeverage != null) {
+                collect(byBeverage.get(lookup.beverage), lookup, candidates);
+            }
+            if (bySize != null) {
+                collect(bySize.get(lookup.size), lookup, candidates);
+            }
+            if (byHour != null) {
+                collect(byHour[lookup.hour], lookup, candidates);
+            }
+        }
+
+        private static void collect(Node child, Lookup lookup, List<Entry> candidates) {
+            if (child != null) {
+                child.collect(lookup, candidates);
+            }
+        }
+    }
+
+    private static final class Lookup {
+        private final List<String> extras;
+        private final String beverage;
+        private final String size;
+        private final int hour;
+
+        private Lookup(List<String> extras, String beverage, String size, int hour) {
+            this.extras = extras;
+            this.beverage = beverage;
+            this.size = size;
+            this.hour = hour;
+        }
+    }
+
+    private static final class Entry implements Comparable<Entry> {
+        private final int position;
+        private final PricingRule rule;
+
+        private Entry(int position, PricingRule rule) {
+            this.position = position;
+            this.rule = rule;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            return Integer.compare(position, other.position);
+        }
+    }
+}
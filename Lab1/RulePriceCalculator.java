@@ -0,0 +1,57 @@
+import java.time.Clock;
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Demonstrates OCP and DIP: promotions are data (PricingRule) rather than code, and
+// the active rule set can be swapped atomically while orders are being priced.
+// A calculator prices for one store: rules for other stores never enter its set.
+public class RulePriceCalculator implements IPriceCalculator {
+    private final Map<String, Double> basePrices;
+    private final Set<String> sizes;
+    private final String store;
+    private final Clock clock;
+    private final AtomicReference<PricingRuleSet> rules = new AtomicReference<>(PricingRuleSet.empty());
+
+    public RulePriceCalculator(Map<String, Double> basePrices, Set<String> sizes, List<PricingRule> rules) {
+        this(basePrices, sizes, rules, null, Clock.systemDefaultZone());
+    }
+
+    public RulePriceCalculator(Map<String, Double> basePrices, Set<String> sizes, List<PricingRule> rules,
+                               String store, Clock clock) {
+        this.basePrices = new HashMap<>(basePrices);
+        this.sizes = new HashSet<>(sizes);
+        this.store = store;
+        this.clock = clock;
+        replaceRules(rules);
+    }
+
+    // Builds the new index first, so in-flight orders keep using the old set until the swap.
+    public void replaceRules(List<PricingRule> newRules) {
+        rules.set(new PricingRuleSet(newRules, store));
+    }
+
+    public PricingRuleSet getRules() {
+        return rules.get();
+    }
+
+    @Override
+    public double calculate(IOrder order) {
+        Double startingPrice = basePrices.get(order.getBeverage());
+        if (startingPrice == null) {
+            throw new IllegalArgumentException("Unknown beverage: " + order.getBeverage());
+        }
+        if (!sizes.contains(order.getSize())) {
+            throw new IllegalArgumentException("Unknown size: " + order.getSize());
+        }
+        double total = startingPrice;
+        for (PricingRule rule : rules.get().matching(order, LocalTime.now(clock))) {
+            total = rule.apply(order, total);
+        }
+        return Math.round(total * 100.0) / 100.0;
+    }
+}
@@ -0,0 +1,85 @@
+#!/usr/bin/env bash
+# Builds Lab2 into a jar, records an AppCDS archive from a scripted CoffeeApp
+# session and compares time-to-first-order with and without the archive.
+#
+#   scripts/fast-startup.sh train      build the jar and the archive
+#   scripts/fast-startup.sh run        start CoffeeApp using the archive
+#   scripts/fast-startup.sh bench [N]  N cold starts per mode (default 10)
+set -euo pipefail
+
+LAB_DIR="$(cd "$(dirname "$0")/.." && pwd)"
+BUILD_DIR="$LAB_DIR/build"
+JAR="$BUILD_DIR/lab2.jar"
+ARCHIVE="$BUILD_DIR/lab2.jsa"
+
+build() {
+    rm -rf "$BUILD_DIR/classes"
+    mkdir -p "$BUILD_DIR/classes"
+    javac -d "$BUILD_DIR/classes" $(find "$LAB_DIR/src" -name '*.java')
+    jar --create --file "$JAR" --main-class lab2.client.CoffeeApp -C "$BUILD_DIR/classes" .
+}
+
+train() {
+    build
+    rm -f "$ARCHIVE"
+    # One order of each type, then exit, so every shop and factory gets archived.
+    printf '1\n\n\n\n\n2\nL\nOat\nCaramel\nn\n3\nS\n\n\ny\n0\n' \
+        | java -XX:ArchiveClassesAtExit="$ARCHIVE" -jar "$JAR" > /dev/null
+    echo "Wrote $ARCHIVE"
+}
+
+# Retrains when the jar or archive is missing, a source file is newer than the
+# archive, or the archive no longer maps, e.g. after the repo was moved.
+ensure_archive() {
+    if [[ ! -f "$ARCHIVE" || ! -f "$JAR" ]] \
+        || [[ -n "$(find "$LAB_DIR/src" -name '*.java' -newer "$ARCHIVE" -print -quit)" ]] \
+        || ! java -Xshare:on -XX:SharedArchiveFile="$ARCHIVE" -cp "$JAR" -version > /dev/null 2>&1; then
+        train
+    fi
+}
+
+# Prints only the measured milliseconds; any run without a timing line aborts the bench.
+first_order_ms() {
+    local output
+    output="$(java "$@" -cp "$JAR" lab2.client.StartupBenchmark "$(date +%s%N)")"
+    if ! grep -q '^time-to-first-order: ' <<< "$output"; then
+        echo "No time-to-first-order from java $*:" >&2
+        echo "$output" >&2
+        return 1
+    fi
+    awk '/^time-to-first-order: / { print $2 }' <<< "$output"
+}
+
+bench() {
+    local runs="${1:-10}"
+    ensure_archive
+    local default_runs="" archived_runs=""
+    for ((i = 0; i < runs; i++)); do
+        default_runs+="$(first_order_ms -Xshare:auto) "
+        # -Xshare:on makes a broken archive an error instead of a silent fallback.
+        archived_runs+="$(first_order_ms -Xshare:on -XX:SharedArchiveFile="$ARCHIVE") "
+    done
+    report "default CDS" $default_runs
+    report "AppCDS" $archived_runs
+}
+
+report() {
+    local label="$1"
+    shift
+    printf '%s\n' "$@" | sort -n | awk -v label="$label" '
+        { v[NR] = $1; sum += $1 }
+        END { printf "%-12s: mean %.1f ms, median %.1f ms over %d runs\n", label, sum / NR, v[int((NR + 1) / 2)], NR }'
+}
+
+case "${1:-}" in
+    train) train ;;
+    run)
+        ensure_archive
+        exec java -Xshare:on -XX:SharedArchiveFile="$ARCHIVE" -jar "$JAR"
+        ;;
+    bench) bench "${2:-10}" ;;
+    *)
+        echo "usage: $0 train | run | bench [runs]" >&2
+        exit 1
+        ;;
+esac
@@ -0,0 +1,283 @@
+package lab2.barista;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import lab2.domain.CoffeeOrderRequest;
+import lab2.domain.OrderService;
+import lab2.domain.OrderTicket;
+import lab2.models.CoffeeType;
+import lab2.models.OrderPriority;
+
+// Work-stealing execution model: each barista station is a thread that owns one
+// deque per priority lane. New orders go to the less loaded of two randomly
+// chosen stations, so there is no single shared queue to contend on. Orders are
+// ranked by enqueue time plus one agingStep per lane below the most urgent, so
+// every agingStep spent waiting promotes an order one lane and none can starve.
+// A station that frees up takes the best-ranked order across all stations,
+// preferring its own on ties, so an urgent order queued behind a busy station
+// is stolen rather than passed over.
+public final class BaristaPool implements AutoCloseable {
+    private static final OrderPriority[] PRIORITIES = OrderPriority.values();
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final OrderService orderService;
+    private final long agingStepNanos;
+    private final List<Station> stations = new ArrayList<>();
+    private volatile boolean running = true;
+
+    public BaristaPool(OrderService orderService, int stationCount, Duration agingStep) {
+        if (stationCount < 1) {
+            throw new IllegalArgumentException("At least one station is required");
+        }
+        this.orderService = orderService;
+        this.agingStepNanos = Math.max(1, agingStep.toNanos());
+        for (int i = 0; i < stationCount; i++) {
+            stations.add(new Station(i));
+        }
+        for (Station station : stations) {
+            station.thread.start();
+        }
+    }
+
+    public static OrderPriority priorityOf(CoffeeOrderRequest request) {
+        return request.takeaway() ? OrderPriority.TAKEAWAY : OrderPriority.DINE_IN;
+    }
+
+    public CompletableFuture<OrderTicket> submit(CoffeeType type, CoffeeOrderRequest request) {
+        return submit(type, request, priorityOf(request));
+    }
+
+    public CompletableFuture<OrderTicket> submit(CoffeeType type, CoffeeOrderRequest request, OrderPriority priority) {
+        if (!running) {
+            throw shutDown();
+        }
+        BrewTask task = new BrewTask(orderService.registerOrder(), type, request, priority);
+        Station target = pickStation();
+        target.push(task);
+        // close() may have drained the stations between the check above and the push.
+        if (!running && target.remove(task)) {
+            task.abandon(orderService, shutDown());
+            return task.result();
+        }
+        // A busy station finds the order on its own once it is done; unparking it
+        // would only cost a context switch, so wake an idle station to steal instead.
+        if (!target.claimIdle()) {
+            wakeIdleStation(target);
+        }
+        return task.result();
+    }
+
+    public int stationCount() {
+        return stations.size();
+    }
+
+    public long completedBy(int station) {
+        return stations.get(station).completed;
+    }
+
+    public long stolenBy(int station) {
+        return stations.get(station).stolen;
+    }
+
+    // Stops accepting orders, lets the stations finish what is queued and waits for
+    // them. Orders that slipped in after the stations stopped are failed.
+    @Override
+    public void close() {
+        running = false;
+        for (Station station : stations) {
+            station.wake();
+        }
+        for (Station station : stations) {
+            try {
+                station.thread.join();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        for (Station station : stations) {
+            for (BrewTask task = station.poll(); task != null; task = station.poll()) {
+                task.abandon(orderService, shutDown());
+            }
+        }
+    }
+
+    private static IllegalStateException shutDown() {
+        return new IllegalStateException("Barista pool is shut down");
+    }
+
+    private Station pickStation() {
+        int count = stations.size();
+        if (count == 1) {
+            return stations.get(0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Station first = stations.get(random.nextInt(count));
+        Station second = stations.get(random.nextInt(count));
+        return first.pending.get() <= second.pending.get() ? first : second;
+    }
+
+    private void wakeIdleStation(Station busy) {
+        for (Station station : stations) {
+            if (station != busy && station.claimIdle()) {
+                return;
+            }
+        }
+    }
+
+    // Only orders taken from other stations count as stolen.
+    private BrewTask next(Station self) {
+        while (true) {
+            Station owner = null;
+            BrewTask best = self.peekBest();
+            if (best != null) {
+                owner = self;
+            }
+            for (Station station : stations) {
+                BrewTask head = station == self ? null : station.peekBest();
+                if (head != null && (best == null || outranks(head, best))) {
+                    best = head;
+                    owner = station;
+                }
+            }
+            if (owner == null) {
+                return null;
+            }
+            BrewTask task = owner.poll();
+            if (task != null) {
+                if (owner != self) {
+                    self.stolen++;
+                }
+                return task;
+            }
+        }
+    }
+
+    private boolean hasPending() {
+        for (Station station : stations) {
+            if (station.pending.get() > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long rank(BrewTask task) {
+        return task.enqueuedAtNanos() + task.priority().ordinal() * agingStepNanos;
+    }
+
+    private boolean outranks(BrewTask task, BrewTask other) {
+        return rank(task) - rank(other) < 0;
+    }
+
+    private final class Station implements Runnable {
+        private final List<ConcurrentLinkedDeque<BrewTask>> lanes = new ArrayList<>(PRIORITIES.length);
+        private final AtomicInteger pending = new AtomicInteger();
+        private final Thread thread;
+        private final AtomicBoolean idle = new AtomicBoolean();
+        // Written only by this station's thread.
+        private volatile long completed;
+        private volatile long stolen;
+
+        private Station(int index) {
+            for (int i = 0; i < PRIORITIES.length; i++) {
+                lanes.add(new ConcurrentLinkedDeque<>());
+            }
+            this.thread = new Thread(this, "barista-station-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                BrewTask task = next(this);
+                if (task == null) {
+                    // Publish idle before the last look: a submit to a busy station after
+                    // this point wakes this one, and one before it is seen here.
+                    idle.set(true);
+                    task = next(this);
+                }
+                if (task != null) {
+                    idle.set(false);
+                    task.run(orderService);
+                    completed++;
+                    continue;
+                }
+                if (!running) {
+                    return;
+                }
+                if (!hasPending()) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+                idle.set(false);
+            }
+        }
+
+        void push(BrewTask task) {
+            lanes.get(task.priority().ordinal()).addLast(task);
+            pending.incrementAndGet();
+        }
+
+        boolean remove(BrewTask task) {
+            if (lanes.get(task.priority().ordinal()).remove(task)) {
+                pending.decrementAndGet();
+                return true;
+            }
+            return false;
+        }
+
+        void wake() {
+            LockSupport.unpark(thread);
+        }
+
+        // Each wake-up goes to a different idle station, so a burst of orders is
+        // not spent on one station that is already waking up.
+        boolean claimIdle() {
+            if (!idle.compareAndSet(true, false)) {
+                return false;
+            }
+            wake();
+            return true;
+        }
+
+        // Lanes are FIFO, so the best-ranked order is the best of the lane heads.
+        BrewTask peekBest() {
+            if (pending.get() == 0) {
+                return null;
+            }
+            BrewTask best = null;
+            for (ConcurrentLinkedDeque<BrewTask> lane : lanes) {
+                BrewTask head = lane.peekFirst();
+                if (head != null && (best == null || outranks(head, best))) {
+                    best = head;
+                }
+            }
+            return best;
+        }
+
+        // Used by the owner and by thieves alike.
+        BrewTask poll() {
+            while (true) {
+                BrewTask best = peekBest();
+                if (best == null) {
+                    return null;
+                }
+                // If another thread took it first, the lane's next order is just as fair.
+                BrewTask task = lanes.get(best.priority().ordinal()).pollFirst();
+                if (task != null) {
+                    pending.decrementAndGet();
+                    return task;
+                }
+            }
+        }
+    }
+}
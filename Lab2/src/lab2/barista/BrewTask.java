@@ -0,0 +1,52 @@
+package lab2.barista;
+
+import java.util.concurrent.CompletableFuture;
+
+import lab2.domain.CoffeeOrderRequest;
+import lab2.domain.OrderService;
+import lab2.domain.OrderTicket;
+import lab2.models.CoffeeType;
+import lab2.models.OrderPriority;
+
+final class BrewTask {
+    private final long orderId;
+    private final CoffeeType type;
+    private final CoffeeOrderRequest request;
+    private final OrderPriority priority;
+    private final long enqueuedAtNanos;
+    private final CompletableFuture<OrderTicket> result = new CompletableFuture<>();
+
+    BrewTask(long orderId, CoffeeType type, CoffeeOrderRequest request, OrderPriority priority) {
+        this.orderId = orderId;
+        this.type = type;
+        this.request = request;
+        this.priority = priority;
+        this.enqueuedAtNanos = System.nanoTime();
+    }
+
+    OrderPriority priority() {
+        return priority;
+    }
+
+    long enqueuedAtNanos() {
+        return enqueuedAtNanos;
+    }
+
+    CompletableFuture<OrderTicket> result() {
+        return result;
+    }
+
+    void run(OrderService orderService) {
+        try {
+            result.complete(orderService.brew(orderId, type, request));
+        } catch (RuntimeException ex) {
+            result.completeExceptionally(ex);
+        }
+    }
+
+    // For orders no station will ever pick up, e.g. after the pool shut down.
+    void abandon(OrderService orderService, RuntimeException reason) {
+        orderService.tracker().cancel(orderId);
+        result.completeExceptionally(reason);
+    }
+}
@@ -0,0 +1,267 @@
+package lab2.client;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import lab2.barista.BaristaPool;
+import lab2.domain.CoffeeOrderRequest;
+import lab2.domain.OrderService;
+import lab2.domain.OrderTicket;
+import lab2.models.CoffeeType;
+import lab2.models.OrderPriority;
+
+// Load run comparing the work-stealing BaristaPool with a single shared priority
+// queue feeding the same number of stations. Orders arrive at random intervals
+// at the given fraction of capacity, and each brew holds its station for a
+// random barista time, so the numbers reflect queueing, not CPU speed. Both
+// schemes age orders by the same rule, so the difference is down to work
+// stealing. Reports the wait from submit to brew start per lane, and station
+// utilisation.
+//
+//   java lab2.client.BaristaBenchmark [stations] [orders] [load]
+public final class BaristaBenchmark {
+    private static final long MEAN_BREW_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final Duration AGING_STEP = Duration.ofMillis(20);
+
+    private BaristaBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int stations = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int orders = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        double load = args.length > 2 ? Double.parseDouble(args[2]) : 0.9;
+
+        System.out.printf("%d stations, %d orders, %.0f%% load, %.1f ms mean brew%n",
+            stations, orders, load * 100, MEAN_BREW_NANOS / 1e6);
+        // Untimed rounds first, so neither scheme pays for JIT compilation.
+        run(new PoolScheme(stations), stations, orders / 4, load);
+        run(new SharedQueueScheme(stations), stations, orders / 4, load);
+
+        System.out.printf("%-14s %-14s %10s %10s %10s %8s%n", "queue", "lane", "orders", "p50 ms", "p99 ms", "util");
+        report("work-stealing", run(new PoolScheme(stations), stations, orders, load));
+        report("single queue", run(new SharedQueueScheme(stations), stations, orders, load));
+    }
+
+    private static Result run(Scheme scheme, int stations, int orders, double load) throws Exception {
+        Random random = new Random(42);
+        long meanGapNanos = (long) (MEAN_BREW_NANOS / (stations * load));
+        List<CompletableFuture<OrderTicket>> tickets = new ArrayList<>(orders);
+        Map<Long, Long> submittedAt = new ConcurrentHashMap<>();
+        Map<Long, OrderPriority> priorities = new ConcurrentHashMap<>();
+
+        long start = System.nanoTime();
+        long nextArrival = start;
+        for (int i = 0; i < orders; i++) {
+            nextArrival += exponential(random, meanGapNanos);
+            long delay = nextArrival - System.nanoTime();
+            if (delay > 0) {
+                LockSupport.parkNanos(delay);
+            }
+            OrderPriority priority = randomPriority(random);
+            CoffeeOrderRequest request = CoffeeOrderRequest.builder()
+                .takeaway(priority != OrderPriority.DINE_IN)
+                .build();
+            long brewNanos = exponential(random, MEAN_BREW_NANOS);
+            long submitted = System.nanoTime();
+            CompletableFuture<OrderTicket> ticket = scheme.submit(request, priority, brewNanos);
+            tickets.add(ticket.thenApply(done -> {
+                submittedAt.put(done.orderId(), submitted);
+                priorities.put(done.orderId(), priority);
+                return done;
+            }));
+        }
+        CompletableFuture.allOf(tickets.toArray(new CompletableFuture<?>[0])).join();
+        long elapsed = System.nanoTime() - start;
+        scheme.close();
+
+        Result result = new Result(scheme.busyNanos() / (double) (elapsed * stations));
+        for (Map.Entry<Long, Long> started : scheme.startedAt().entrySet()) {
+            long wait = started.getValue() - submittedAt.get(started.getKey());
+            result.waits.get(priorities.get(started.getKey())).add(wait);
+        }
+        return result;
+    }
+
+    private static void report(String name, Result result) {
+        List<Long> all = new ArrayList<>();
+        for (OrderPriority priority : OrderPriority.values()) {
+            List<Long> waits = result.waits.get(priority);
+            all.addAll(waits);
+            printRow(name, priority.name(), waits, "");
+        }
+        printRow(name, "all", all, String.format("%.0f%%", result.utilisation * 100));
+    }
+
+    private static void printRow(String name, String lane, List<Long> waits, String utilisation) {
+        long[] sorted = waits.stream().mapToLong(Long::longValue).sorted().toArray();
+        System.out.printf("%-14s %-14s %10d %10.2f %10.2f %8s%n",
+            name, lane, sorted.length, percentile(sorted, 0.50), percentile(sorted, 0.99), utilisation);
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    private static OrderPriority randomPriority(Random random) {
+        int roll = random.nextInt(10);
+        if (roll < 2) {
+            return OrderPriority.MOBILE_PREPAID;
+        }
+        return roll < 6 ? OrderPriority.TAKEAWAY : OrderPriority.DINE_IN;
+    }
+
+    private static long exponential(Random random, long meanNanos) {
+        return (long) (-Math.log(1 - random.nextDouble()) * meanNanos);
+    }
+
+    private static final class Result {
+        private final double utilisation;
+        private final Map<OrderPriority, List<Long>> waits = new EnumMap<>(OrderPriority.class);
+
+        private Result(double utilisation) {
+            this.utilisation = utilisation;
+            for (OrderPriority priority : OrderPriority.values()) {
+                waits.put(priority, new ArrayList<>());
+            }
+        }
+    }
+
+    // Brews normally, then holds the station for the order's barista time.
+    private static final class TimedOrderService extends OrderService {
+        private final Map<Long, Long> startedAt = new ConcurrentHashMap<>();
+        private final Map<Long, Long> brewNanos = new ConcurrentHashMap<>();
+        private final LongAdder busyNanos = new LongAdder();
+
+        @Override
+        public OrderTicket brew(long orderId, CoffeeType type, CoffeeOrderRequest request) {
+            long start = System.nanoTime();
+            startedAt.put(orderId, start);
+            try {
+                OrderTicket ticket = super.brew(orderId, type, request);
+                Long hold = brewNanos.remove(orderId);
+                long until = System.nanoTime() + (hold == null ? 0 : hold);
+                // A wake-up meant for an idle station can land once it has started brewing.
+                for (long left = until - System.nanoTime(); left > 0; left = until - System.nanoTime()) {
+                    LockSupport.parkNanos(left);
+                }
+                return ticket;
+            } finally {
+                busyNanos.add(System.nanoTime() - start);
+            }
+        }
+    }
+
+    private abstract static class Scheme {
+        final TimedOrderService orderService = new TimedOrderService();
+
+        abstract CompletableFuture<OrderTicket> submit(
+            CoffeeOrderRequest request,
+            OrderPriority priority,
+            long brewNanos
+        );
+
+        abstract void close();
+
+        Map<Long, Long> startedAt() {
+            return orderService.startedAt;
+        }
+
+        long busyNanos() {
+            return orderService.busyNanos.sum();
+        }
+    }
+
+    private static final class PoolScheme extends Scheme {
+        private final BaristaPool pool;
+        private final AtomicLong lastOrderId = new AtomicLong();
+
+        private PoolScheme(int stations) {
+            this.pool = new BaristaPool(orderService, stations, AGING_STEP);
+        }
+
+        @Override
+        CompletableFuture<OrderTicket> submit(CoffeeOrderRequest request, OrderPriority priority, long brewNanos) {
+            // The pool registers ids in submit order, so the next id is known up front.
+            orderService.brewNanos.put(lastOrderId.incrementAndGet(), brewNanos);
+            return pool.submit(CoffeeType.ESPRESSO, request, priority);
+        }
+
+        @Override
+        void close() {
+            pool.close();
+        }
+    }
+
+    // Every station takes the best-ranked order from one shared queue. Orders are
+    // ranked like in the pool: enqueue time plus one aging step per lane.
+    private static final class SharedQueueScheme extends Scheme {
+        private final AtomicLong sequence = new AtomicLong();
+        private final ThreadPoolExecutor executor;
+
+        private SharedQueueScheme(int stations) {
+            this.executor = new ThreadPoolExecutor(
+                stations, stations, 0, TimeUnit.MILLISECONDS, new PriorityBlockingQueue<>());
+            executor.prestartAllCoreThreads();
+        }
+
+        @Override
+        CompletableFuture<OrderTicket> submit(CoffeeOrderRequest request, OrderPriority priority, long brewNanos) {
+            long orderId = orderService.registerOrder();
+            orderService.brewNanos.put(orderId, brewNanos);
+            CompletableFuture<OrderTicket> result = new CompletableFuture<>();
+            long rank = System.nanoTime() + priority.ordinal() * AGING_STEP.toNanos();
+            executor.execute(new QueuedBrew(rank, sequence.getAndIncrement(), () -> {
+                try {
+                    result.complete(orderService.brew(orderId, CoffeeType.ESPRESSO, request));
+                } catch (RuntimeException ex) {
+                    result.completeExceptionally(ex);
+                }
+            }));
+            return result;
+        }
+
+        @Override
+        void close() {
+            executor.shutdown();
+        }
+    }
+
+    private static final class QueuedBrew implements Runnable, Comparable<QueuedBrew> {
+        private final long rank;
+        private final long sequence;
+        private final Runnable brew;
+
+        private QueuedBrew(long rank, long sequence, Runnable brew) {
+            this.rank = rank;
+            this.sequence = sequence;
+            this.brew = brew;
+        }
+
+        @Override
+        public void run() {
+            brew.run();
+        }
+
+        @Override
+        public int compareTo(QueuedBrew other) {
+            int byRank = Long.signum(rank - other.rank);
+            return byRank != 0 ? byRank : Long.compare(sequence, other.sequence);
+        }
+    }
+}
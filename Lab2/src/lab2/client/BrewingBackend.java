@@ -0,0 +1,123 @@
+package lab2.client;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Locale;
+
+import lab2.domain.AdmissionController;
+import lab2.domain.IngredientInventory;
+import lab2.domain.OrderResult;
+import lab2.domain.OrderService;
+import lab2.ipc.MappedRingBuffer;
+import lab2.ipc.OrderCodec;
+import lab2.ipc.RemoteCounter;
+import lab2.ipc.WaitStrategy;
+
+// Brewing side of the cross-process handoff. Consumes orders from the shared
+// order ring, brews them through OrderService under the id the front counter
+// assigned, and publishes a completion for every order it can decode.
+//
+//   java lab2.client.BrewingBackend <ring-dir> [BUSY_SPIN|YIELD|PARK]
+//   java lab2.client.CoffeeApp --remote <ring-dir>
+public final class BrewingBackend {
+    private static final Duration BREW_DEADLINE = Duration.ofSeconds(2);
+
+    private static volatile boolean running = true;
+
+    private BrewingBackend() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("usage: BrewingBackend <ring-dir> [BUSY_SPIN|YIELD|PARK]");
+            System.exit(1);
+        }
+        Path directory = Path.of(args[0]);
+        WaitStrategy waitStrategy = args.length > 1
+            ? WaitStrategy.valueOf(args[1].toUpperCase(Locale.ROOT))
+            : WaitStrategy.PARK;
+
+        OrderService orderService = new OrderService();
+        CoffeeApp.stockInventory(IngredientInventory.getInstance());
+        AdmissionController admission = AdmissionController.builder()
+            .orderService(orderService)
+            .build();
+
+        Thread mainThread = Thread.currentThread();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            running = false;
+            try {
+                mainThread.join();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+
+        try (MappedRingBuffer orders = RemoteCounter.openOrderRing(directory, MappedRingBuffer.Side.CONSUMER);
+             MappedRingBuffer completions = RemoteCounter.openCompletionRing(directory, MappedRingBuffer.Side.PRODUCER)) {
+            System.out.println("Brewing back end listening on " + directory.toAbsolutePath());
+            int attempt = 0;
+            while (running) {
+                if (orders.poll(payload -> brew(payload, admission, orderService, completions, waitStrategy))) {
+                    attempt = 0;
+                } else {
+                    waitStrategy.idle(attempt++);
+                }
+            }
+        }
+    }
+
+    private static void brew(
+        byte[] payload,
+        AdmissionController admission,
+        OrderService orderService,
+        MappedRingBuffer completions,
+        WaitStrategy waitStrategy
+    ) {
+        // A bad order must not wedge the ring: anything that decodes gets a
+        // completion, and only undecodable payloads are logged and skipped.
+        OrderCodec.Order order;
+        try {
+            order = OrderCodec.decodeOrder(payload);
+        } catch (RuntimeException ex) {
+            System.err.println("Skipping order that could not be decoded: " + ex);
+            return;
+        }
+
+        OrderResult result;
+        if (payload.length > OrderCodec.maxOrderPayload(completions.maxPayload())) {
+            result = OrderResult.rejected(
+                OrderResult.Rejection.INVALID_ORDER,
+                "Order of " + payload.length + " bytes leaves no room for its completion"
+            );
+        } else {
+            result = placeOrder(order, admission);
+        }
+
+        byte[] completion = OrderCodec.encodeCompletion(order.orderId(), result);
+        if (completion.length > completions.maxPayload()) {
+            // Brewed but impossible to report, so hand the ingredients back.
+            result.coffee().ifPresent(IngredientInventory.getInstance()::release);
+            orderService.tracker().cancel(order.orderId());
+            result = OrderResult.rejected(
+                OrderResult.Rejection.INVALID_ORDER,
+                "Completion of " + completion.length + " bytes does not fit the ring"
+            );
+            completion = OrderCodec.encodeCompletion(order.orderId(), result);
+        }
+        completions.put(completion, waitStrategy);
+        result.orderId().ifPresent(orderService::collect);
+    }
+
+    private static OrderResult placeOrder(OrderCodec.Order order, AdmissionController admission) {
+        try {
+            return admission.placeOrder(order.orderId(), order.type(), order.request(), BREW_DEADLINE);
+        } catch (IllegalArgumentException ex) {
+            return OrderResult.rejected(OrderResult.Rejection.INVALID_ORDER, ex.getMessage());
+        } catch (RuntimeException ex) {
+            System.err.println("Order #" + order.orderId() + " failed to brew: " + ex);
+            return OrderResult.rejected(OrderResult.Rejection.BREW_FAILED, String.valueOf(ex.getMessage()));
+        }
+    }
+}
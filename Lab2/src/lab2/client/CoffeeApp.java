@@ -1,21 +1,46 @@
 package lab2.client;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Locale;
 import java.util.Scanner;
+import java.util.function.LongConsumer;
 
+import lab2.domain.AdmissionController;
 import lab2.domain.CoffeeOrderRequest;
+import lab2.domain.IngredientInventory;
+import lab2.domain.OrderGateway;
+import lab2.domain.OrderResult;
 import lab2.domain.OrderService;
-import lab2.models.Coffee;
+import lab2.ipc.RemoteCounter;
+import lab2.ipc.WaitStrategy;
 import lab2.models.CoffeeType;
 import lab2.models.Size;
 
 public final class CoffeeApp {
+    private static final Duration ORDER_DEADLINE = Duration.ofSeconds(2);
+
     private CoffeeApp() {
     }
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        if (args.length == 2 && "--remote".equals(args[0])) {
+            try (RemoteCounter counter = RemoteCounter.open(Path.of(args[1]), WaitStrategy.PARK)) {
+                serve(counter, orderId -> { });
+            }
+            return;
+        }
+
         OrderService orderService = new OrderService();
+        AdmissionController admission = AdmissionController.builder()
+            .orderService(orderService)
+            .build();
+        stockInventory(IngredientInventory.getInstance());
+        serve(admission, orderService::collect);
+    }
 
+    private static void serve(OrderGateway gateway, LongConsumer onPickup) {
         try (Scanner scanner = new Scanner(System.in)) {
             scanner.useLocale(Locale.US);
             boolean running = true;
@@ -34,14 +59,31 @@ public final class CoffeeApp {
                 }
 
                 CoffeeOrderRequest request = gatherCustomization(scanner);
-                Coffee coffee = orderService.placeOrder(type, request);
-                System.out.println("\nPrepared: " + coffee + '\n');
+                OrderResult result = gateway.placeOrder(type, request, ORDER_DEADLINE);
+                if (result.isAccepted()) {
+                    long orderId = result.orderId().orElseThrow();
+                    System.out.println("\nOrder #" + orderId + " prepared: " + result.coffee().orElseThrow() + '\n');
+                    onPickup.accept(orderId);
+                } else {
+                    System.out.println("\nSorry, we cannot take this order: " + result.reason() + '\n');
+                }
             }
         }
 
         System.out.println("Goodbye!");
     }
 
+    static void stockInventory(IngredientInventory inventory) {
+        inventory.stock("Whole", 40, 5);
+        inventory.stock("Oat", 30, 5);
+        inventory.stock("Soy", 20, 5);
+        inventory.stock("Vanilla Syrup", 25, 3);
+        inventory.stock("Caramel", 25, 3);
+        inventory.stock("Cocoa Powder", 25, 3);
+        inventory.addLowStockListener((ingredient, remaining) ->
+            System.out.println("[inventory] Low on " + ingredient + ": " + remaining + " left"));
+    }
+
     private static void printMenu() {
         System.out.println("=== Coffee Shop Menu ===");
         System.out.println("1. Espresso");
@@ -0,0 +1,50 @@
+package lab2.client;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import lab2.domain.AdmissionController;
+import lab2.domain.CoffeeOrderRequest;
+import lab2.domain.OrderResult;
+import lab2.domain.OrderService;
+import lab2.models.CoffeeType;
+import lab2.models.Size;
+
+// Measures time-to-first-order for a cold JVM. Pass the launch time in epoch
+// nanoseconds (e.g. `date +%s%N`) to include JVM boot; otherwise the process
+// start time reported by the OS is used.
+public final class StartupBenchmark {
+    private StartupBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        long launchedAtNanos = args.length > 0 ? Long.parseLong(args[0]) : processStartNanos();
+
+        AdmissionController admission = AdmissionController.builder()
+            .orderService(new OrderService())
+            .build();
+        CoffeeOrderRequest request = CoffeeOrderRequest.builder()
+            .size(Size.LARGE)
+            .milkType("Oat")
+            .addOn("Caramel")
+            .build();
+        OrderResult result = admission.placeOrder(CoffeeType.LATTE, request, Duration.ofSeconds(5));
+        if (!result.isAccepted()) {
+            throw new IllegalStateException("First order was rejected: " + result.reason());
+        }
+
+        long elapsedNanos = epochNanos(Instant.now()) - launchedAtNanos;
+        System.out.printf("time-to-first-order: %.1f ms%n", elapsedNanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    private static long processStartNanos() {
+        Instant start = ProcessHandle.current().info().startInstant()
+            .orElseThrow(() -> new IllegalStateException("Process start time is unavailable; pass it as an argument"));
+        return epochNanos(start);
+    }
+
+    private static long epochNanos(Instant instant) {
+        return TimeUnit.SECONDS.toNanos(instant.getEpochSecond()) + instant.getNano();
+    }
+}
@@ -0,0 +1,324 @@
+package lab2.domain;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import lab2.models.CoffeeType;
+import lab2.telemetry.OrderStage;
+import lab2.telemetry.OrderTrace;
+
+// Proxy Pattern
+// Sits in front of OrderService and sheds load instead of letting latency grow.
+// The concurrency limit follows AIMD on observed brew latency: it grows by
+// 1/limit per brew inside the SLO and is cut multiplicatively when a brew is
+// slower. Orders that cannot start immediately wait in a bounded FIFO queue per
+// coffee type and are rejected up front when they would miss their deadline.
+// A freed permit goes to the oldest waiter across all types; newcomers only
+// take the fast path while nobody is queued.
+public final class AdmissionController implements OrderGateway {
+    private static final int LATENCY_SMOOTHING = 8;
+
+    private final OrderService orderService;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencySloNanos;
+    private final double backoffRatio;
+    private final int queueCapacity;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong limitBits;
+    private final AtomicLong averageLatencyNanos = new AtomicLong();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<CoffeeType, ArrayDeque<Waiter>> queues = new EnumMap<>(CoffeeType.class);
+    private final AtomicInteger waiting = new AtomicInteger();
+    private long arrivals;
+
+    private AdmissionController(Builder builder) {
+        this.orderService = builder.orderService;
+        this.minLimit = builder.minLimit;
+        this.maxLimit = builder.maxLimit;
+        this.latencySloNanos = builder.latencySlo.toNanos();
+        this.backoffRatio = builder.backoffRatio;
+        this.queueCapacity = builder.queueCapacity;
+        this.limitBits = new AtomicLong(Double.doubleToLongBits(builder.initialLimit));
+        for (CoffeeType type : CoffeeType.values()) {
+            queues.put(type, new ArrayDeque<>());
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public OrderResult placeOrder(CoffeeType type, CoffeeOrderRequest request, Duration timeout) {
+        return placeOrder(orderService.nextOrderId(), type, request, timeout);
+    }
+
+    // For orders that already carry an id, e.g. those arriving from the front counter.
+    // The id is only tracked once the order is admitted, so shed orders cost nothing.
+    public OrderResult placeOrder(long orderId, CoffeeType type, CoffeeOrderRequest request, Duration timeout) {
+        return admit(orderId, type, request, timeout);
+    }
+
+    private OrderResult admit(long orderId, CoffeeType type, CoffeeOrderRequest request, Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        OrderResult rejection = null;
+        try (OrderTrace.Span span = OrderTrace.span(OrderStage.ADMISSION, orderId)) {
+            if (waiting.get() > 0 || !tryAcquire()) {
+                rejection = awaitPermit(type, deadline);
+            }
+        }
+        if (rejection != null) {
+            return rejection;
+        }
+
+        try {
+            if (!orderService.registerOrder(orderId)) {
+                return OrderResult.rejected(OrderResult.Rejection.QUEUE_FULL, "Order tracker is full");
+            }
+            long start = System.nanoTime();
+            OrderTicket ticket = orderService.brew(orderId, type, request);
+            onSample(System.nanoTime() - start);
+            return OrderResult.accepted(ticket);
+        } catch (OutOfStockException ex) {
+            return OrderResult.rejected(OrderResult.Rejection.OUT_OF_STOCK, ex.getMessage());
+        } catch (IllegalArgumentException ex) {
+            // A malformed order says nothing about capacity, so the limit stays put.
+            throw ex;
+        } catch (RuntimeException ex) {
+            adjustLimit(false);
+            throw ex;
+        } finally {
+            release();
+        }
+    }
+
+    public int currentLimit() {
+        return (int) limit();
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    public int queued(CoffeeType type) {
+        lock.lock();
+        try {
+            return queues.get(type).size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private OrderResult awaitPermit(CoffeeType type, long deadline) {
+        lock.lock();
+        try {
+            ArrayDeque<Waiter> queue = queues.get(type);
+            if (queue.size() >= queueCapacity) {
+                return OrderResult.rejected(
+                    OrderResult.Rejection.QUEUE_FULL,
+                    type.getDisplayName() + " queue is full (" + queueCapacity + " waiting)"
+                );
+            }
+            // Every queued order, whatever its type, drains through the same permits.
+            long expectedWait = averageLatencyNanos.get() * (waiting.get() + 1) / Math.max(1, currentLimit());
+            if (expectedWait > deadline - System.nanoTime()) {
+                return OrderResult.rejected(
+                    OrderResult.Rejection.DEADLINE_EXCEEDED,
+                    "Expected wait of " + TimeUnit.NANOSECONDS.toMillis(expectedWait) + " ms exceeds deadline"
+                );
+            }
+
+            Waiter waiter = new Waiter(lock.newCondition(), arrivals++);
+            queue.addLast(waiter);
+            waiting.incrementAndGet();
+            // A permit may have been released before this waiter became visible.
+            dispatch();
+            return waitUntil(queue, waiter, deadline);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private OrderResult waitUntil(ArrayDeque<Waiter> queue, Waiter waiter, long deadline) {
+        try {
+            while (!waiter.admitted) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    abandon(queue, waiter);
+                    return OrderResult.rejected(OrderResult.Rejection.DEADLINE_EXCEEDED, "Deadline passed while queued");
+                }
+                waiter.wakeup.awaitNanos(remaining);
+            }
+            return null;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            if (waiter.admitted) {
+                return null;
+            }
+            abandon(queue, waiter);
+            return OrderResult.rejected(OrderResult.Rejection.DEADLINE_EXCEEDED, "Interrupted while queued");
+        }
+    }
+
+    private void abandon(ArrayDeque<Waiter> queue, Waiter waiter) {
+        queue.remove(waiter);
+        waiting.decrementAndGet();
+    }
+
+    // Hands free permits to the oldest waiters. Must be called with the lock held.
+    private void dispatch() {
+        while (waiting.get() > 0) {
+            ArrayDeque<Waiter> oldest = null;
+            for (ArrayDeque<Waiter> queue : queues.values()) {
+                Waiter head = queue.peekFirst();
+                if (head != null && (oldest == null || head.arrival < oldest.peekFirst().arrival)) {
+                    oldest = queue;
+                }
+            }
+            if (oldest == null || !tryAcquire()) {
+                return;
+            }
+            Waiter next = oldest.pollFirst();
+            waiting.decrementAndGet();
+            next.admitted = true;
+            next.wakeup.signal();
+        }
+    }
+
+    private boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= currentLimit()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void release() {
+        inFlight.decrementAndGet();
+        wakeWaiters();
+    }
+
+    private void wakeWaiters() {
+        if (waiting.get() == 0) {
+            return;
+        }
+        lock.lock();
+        try {
+            dispatch();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onSample(long latencyNanos) {
+        averageLatencyNanos.accumulateAndGet(latencyNanos, (average, sample) ->
+            average == 0 ? sample : average + (sample - average) / LATENCY_SMOOTHING);
+        adjustLimit(latencyNanos <= latencySloNanos);
+    }
+
+    private void adjustLimit(boolean withinSlo) {
+        long currentBits;
+        double current;
+        double next;
+        do {
+            currentBits = limitBits.get();
+            current = Double.longBitsToDouble(currentBits);
+            next = withinSlo ? current + 1.0 / current : current * backoffRatio;
+            next = Math.max(minLimit, Math.min(maxLimit, next));
+        } while (!limitBits.compareAndSet(currentBits, Double.doubleToLongBits(next)));
+
+        if ((int) next > (int) current) {
+            wakeWaiters();
+        }
+    }
+
+    private double limit() {
+        return Double.longBitsToDouble(limitBits.get());
+    }
+
+    private static final class Waiter {
+        private final Condition wakeup;
+        private final long arrival;
+        private boolean admitted;
+
+        private Waiter(Condition wakeup, long arrival) {
+            this.wakeup = wakeup;
+            this.arrival = arrival;
+        }
+    }
+
+    public static final class Builder {
+        private OrderService orderService;
+        private int initialLimit = 4;
+        private int minLimit = 1;
+        private int maxLimit = 64;
+        private Duration latencySlo = Duration.ofMillis(250);
+        private double backoffRatio = 0.9;
+        private int queueCapacity = 16;
+
+        private Builder() {
+        }
+
+        public Builder orderService(OrderService orderService) {
+            this.orderService = Objects.requireNonNull(orderService, "orderService");
+            return this;
+        }
+
+        public Builder initialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+            return this;
+        }
+
+        public Builder limits(int minLimit, int maxLimit) {
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+            return this;
+        }
+
+        public Builder latencySlo(Duration latencySlo) {
+            this.latencySlo = Objects.requireNonNull(latencySlo, "latencySlo");
+            return this;
+        }
+
+        public Builder backoffRatio(double backoffRatio) {
+            this.backoffRatio = backoffRatio;
+            return this;
+        }
+
+        public Builder queueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        public AdmissionController build() {
+            if (orderService == null) {
+                throw new IllegalStateException("Order service must be provided");
+            }
+            if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+                throw new IllegalStateException("Limits must satisfy 1 <= min <= initial <= max");
+            }
+            if (backoffRatio <= 0 || backoffRatio >= 1) {
+                throw new IllegalStateException("Backoff ratio must be between 0 and 1");
+            }
+            if (queueCapacity < 0) {
+                throw new IllegalStateException("Queue capacity must not be negative");
+            }
+            return new AdmissionController(this);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package lab2.domain;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Lock-free open-addressing map from positive long keys to non-zero long values.
+// Keys and values live in two parallel primitive arrays, so there is no boxing
+// and no per-entry node. Linear probing is capped at MAX_PROBE slots, which keeps
+// misses cheap even after many removals have left tombstones behind.
+//
+// Each key may be inserted only once; callers hand out unique keys (order ids).
+final class ConcurrentLongLongMap {
+    static final long ABSENT = 0L;
+
+    private static final long EMPTY_KEY = 0L;
+    private static final long DELETED_KEY = -1L;
+    private static final int MAX_PROBE = 32;
+
+    private final AtomicLongArray keys;
+    private final AtomicLongArray values;
+    private final int mask;
+    private final int hashShift;
+
+    ConcurrentLongLongMap(int capacity) {
+        if (capacity < MAX_PROBE || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two of at least " + MAX_PROBE);
+        }
+        this.keys = new AtomicLongArray(capacity);
+        this.values = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        this.hashShift = Long.SIZE - Integer.numberOfTrailingZeros(capacity);
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    // Returns false when no free slot exists within the probe window.
+    boolean insert(long key, long value) {
+        checkKey(key);
+        if (value == ABSENT) {
+            throw new IllegalArgumentException("Value must not be " + ABSENT);
+        }
+        int slot = home(key);
+        for (int probe = 0; probe < MAX_PROBE; probe++, slot = (slot + 1) & mask) {
+            long current = keys.get(slot);
+            if ((current == EMPTY_KEY || current == DELETED_KEY) && keys.compareAndSet(slot, current, key)) {
+                values.set(slot, value);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    long get(long key) {
+        int slot = find(key);
+        return slot < 0 ? ABSENT : valueAt(slot, key);
+    }
+
+    boolean compareAndSet(long key, long expected, long update) {
+        if (expected == ABSENT || update == ABSENT) {
+            return false;
+        }
+        int slot = find(key);
+        if (slot < 0 || !values.compareAndSet(slot, expected, update)) {
+            return false;
+        }
+        if (keys.get(slot) == key) {
+            return true;
+        }
+        // The slot was recycled for another key between find and CAS; undo.
+        values.compareAndSet(slot, update, expected);
+        return false;
+    }
+
+    boolean remove(long key, long expected) {
+        int slot = find(key);
+        return slot >= 0 && removeAt(slot, key, expected);
+    }
+
+    // Removes every entry the predicate accepts; concurrent updates win over removal.
+    int removeIf(EntryPredicate predicate) {
+        int removed = 0;
+        for (int slot = 0; slot <= mask; slot++) {
+            long key = keys.get(slot);
+            if (key == EMPTY_KEY || key == DELETED_KEY) {
+                continue;
+            }
+            long value = valueAt(slot, key);
+            if (value != ABSENT && predicate.test(key, value) && removeAt(slot, key, value)) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    private boolean removeAt(int slot, long key, long expected) {
+        if (!values.compareAndSet(slot, expected, ABSENT)) {
+            return false;
+        }
+        keys.compareAndSet(slot, key, DELETED_KEY);
+        return true;
+    }
+
+    private int find(long key) {
+        checkKey(key);
+        int slot = home(key);
+        for (int probe = 0; probe < MAX_PROBE; probe++, slot = (slot + 1) & mask) {
+            long current = keys.get(slot);
+            if (current == key) {
+                return slot;
+            }
+            if (current == EMPTY_KEY) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    // Re-reads the key after the value so a slot recycled for another key is never misread.
+    private long valueAt(int slot, long key) {
+        long value = values.get(slot);
+        return keys.get(slot) == key ? value : ABSENT;
+    }
+
+    // Fibonacci hashing: the top bits of key * 2^64/phi spread sequential ids evenly.
+    private int home(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> hashShift);
+    }
+
+    private static void checkKey(long key) {
+        if (key <= 0) {
+            throw new IllegalArgumentException("Keys must be positive: " + key);
+        }
+    }
+
+    @FunctionalInterface
+    interface EntryPredicate {
+        boolean test(long key, long value);
+    }
+}
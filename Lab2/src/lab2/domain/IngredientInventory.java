@@ -0,0 +1,146 @@
+package lab2.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+import lab2.models.Coffee;
+
+// Singleton Pattern
+// Every ingredient has its own CAS counter, so concurrent brews only contend
+// when they draw on the same milk or add-on. Ingredients that were never
+// stocked are treated as unlimited.
+public final class IngredientInventory {
+    private static final IngredientInventory INSTANCE = new IngredientInventory();
+    private static final String NO_MILK = "none";
+
+    private final Map<String, Stock> stocks = new ConcurrentHashMap<>();
+    private final List<BiConsumer<String, Long>> lowStockListeners = new CopyOnWriteArrayList<>();
+
+    private IngredientInventory() {
+    }
+
+    public static IngredientInventory getInstance() {
+        return INSTANCE;
+    }
+
+    public void stock(String ingredient, long quantity, long lowStockThreshold) {
+        if (quantity < 0 || lowStockThreshold < 0) {
+            throw new IllegalArgumentException("Quantity and threshold must not be negative");
+        }
+        Stock stock = stocks.computeIfAbsent(key(ingredient), k -> new Stock());
+        stock.lowStockThreshold = lowStockThreshold;
+        long available = stock.available.addAndGet(quantity);
+        if (available <= lowStockThreshold) {
+            fireLowStock(ingredient, available);
+        }
+    }
+
+    public void addLowStockListener(BiConsumer<String, Long> listener) {
+        lowStockListeners.add(listener);
+    }
+
+    public long available(String ingredient) {
+        Stock stock = stocks.get(key(ingredient));
+        return stock == null ? Long.MAX_VALUE : stock.available.get();
+    }
+
+    public long consumed(String ingredient) {
+        Stock stock = stocks.get(key(ingredient));
+        return stock == null ? 0 : stock.consumed.sum();
+    }
+
+    public void reserve(Coffee coffee) {
+        List<String> ingredients = ingredientsOf(coffee);
+        Stock[] taken = new Stock[ingredients.size()];
+        long[] remaining = new long[ingredients.size()];
+
+        for (int i = 0; i < ingredients.size(); i++) {
+            Stock stock = stocks.get(key(ingredients.get(i)));
+            if (stock == null) {
+                continue;
+            }
+            long left = stock.tryTake();
+            if (left < 0) {
+                for (int j = 0; j < i; j++) {
+                    if (taken[j] != null) {
+                        taken[j].giveBack();
+                    }
+                }
+                throw new OutOfStockException(ingredients.get(i));
+            }
+            taken[i] = stock;
+            remaining[i] = left;
+        }
+
+        for (int i = 0; i < taken.length; i++) {
+            if (taken[i] != null && remaining[i] == taken[i].lowStockThreshold) {
+                fireLowStock(ingredients.get(i), remaining[i]);
+            }
+        }
+    }
+
+    public void release(Coffee coffee) {
+        for (String ingredient : ingredientsOf(coffee)) {
+            Stock stock = stocks.get(key(ingredient));
+            if (stock != null) {
+                stock.giveBack();
+            }
+        }
+    }
+
+    // Runs once the reservation is final. A failing listener must not fail the
+    // brew, since the units it reported on are already taken.
+    private void fireLowStock(String ingredient, long remaining) {
+        for (BiConsumer<String, Long> listener : lowStockListeners) {
+            try {
+                listener.accept(ingredient, remaining);
+            } catch (RuntimeException ex) {
+                System.err.println("Low stock listener failed for " + ingredient + ": " + ex);
+            }
+        }
+    }
+
+    private static List<String> ingredientsOf(Coffee coffee) {
+        List<String> ingredients = new ArrayList<>(coffee.getAddOns().size() + 1);
+        if (!NO_MILK.equals(key(coffee.getMilkType()))) {
+            ingredients.add(coffee.getMilkType());
+        }
+        ingredients.addAll(coffee.getAddOns());
+        return ingredients;
+    }
+
+    private static String key(String ingredient) {
+        return ingredient.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Stock {
+        private final AtomicLong available = new AtomicLong();
+        private final LongAdder consumed = new LongAdder();
+        private volatile long lowStockThreshold;
+
+        // Returns the units left after taking one, or -1 when nothing is left.
+        long tryTake() {
+            long current;
+            do {
+                current = available.get();
+                if (current <= 0) {
+                    return -1;
+                }
+            } while (!available.compareAndSet(current, current - 1));
+            consumed.increment();
+            return current - 1;
+        }
+
+        void giveBack() {
+            available.incrementAndGet();
+            consumed.decrement();
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package lab2.domain;
+
+import java.time.Duration;
+
+import lab2.models.CoffeeType;
+
+// Where the front counter sends orders: in-process or to a separate brewing back end.
+public interface OrderGateway {
+    OrderResult placeOrder(CoffeeType type, CoffeeOrderRequest request, Duration timeout);
+}
@@ -0,0 +1,63 @@
+package lab2.domain;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+import lab2.models.Coffee;
+
+public final class OrderResult {
+    public enum Rejection {
+        QUEUE_FULL,
+        DEADLINE_EXCEEDED,
+        OUT_OF_STOCK,
+        INVALID_ORDER,
+        BREW_FAILED
+    }
+
+    private final OrderTicket ticket;
+    private final Rejection rejection;
+    private final String reason;
+
+    private OrderResult(OrderTicket ticket, Rejection rejection, String reason) {
+        this.ticket = ticket;
+        this.rejection = rejection;
+        this.reason = reason;
+    }
+
+    public static OrderResult accepted(OrderTicket ticket) {
+        return new OrderResult(Objects.requireNonNull(ticket, "ticket"), null, null);
+    }
+
+    public static OrderResult rejected(Rejection rejection, String reason) {
+        return new OrderResult(null, Objects.requireNonNull(rejection, "rejection"), reason);
+    }
+
+    public boolean isAccepted() {
+        return ticket != null;
+    }
+
+    public OptionalLong orderId() {
+        return ticket == null ? OptionalLong.empty() : OptionalLong.of(ticket.orderId());
+    }
+
+    public Optional<Coffee> coffee() {
+        return ticket == null ? Optional.empty() : Optional.of(ticket.coffee());
+    }
+
+    public Optional<Rejection> rejection() {
+        return Optional.ofNullable(rejection);
+    }
+
+    public String reason() {
+        return reason;
+    }
+
+    @Override
+    public String toString() {
+        if (isAccepted()) {
+            return "OrderResult{accepted, orderId=" + ticket.orderId() + ", coffee=" + ticket.coffee() + '}';
+        }
+        return "OrderResult{rejected=" + rejection + ", reason='" + reason + "'}";
+    }
+}
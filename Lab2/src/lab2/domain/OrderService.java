@@ -1,7 +1,10 @@
 package lab2.domain;
 
+import java.time.Duration;
 import java.util.EnumMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
 
 import lab2.factory.CappuccinoShop;
 import lab2.factory.CoffeeShop;
@@ -9,21 +12,76 @@ import lab2.factory.EspressoShop;
 import lab2.factory.LatteShop;
 import lab2.models.Coffee;
 import lab2.models.CoffeeType;
+import lab2.models.OrderStatus;
+import lab2.telemetry.OrderStage;
+import lab2.telemetry.OrderTrace;
 
 public class OrderService {
-    private final Map<CoffeeType, CoffeeShop> shops = new EnumMap<>(CoffeeType.class);
+    private final Map<CoffeeType, Supplier<CoffeeShop>> shopSuppliers = new EnumMap<>(CoffeeType.class);
+    // Shops are created on their first order so a restarted till only pays for what it serves.
+    private final AtomicReferenceArray<CoffeeShop> shops = new AtomicReferenceArray<>(CoffeeType.values().length);
+    private final OrderTracker tracker = new OrderTracker(1 << 16, Duration.ofMinutes(2), Duration.ofMinutes(30));
 
     public OrderService() {
-        shops.put(CoffeeType.ESPRESSO, new EspressoShop());
-        shops.put(CoffeeType.LATTE, new LatteShop());
-        shops.put(CoffeeType.CAPPUCCINO, new CappuccinoShop());
+        shopSuppliers.put(CoffeeType.ESPRESSO, EspressoShop::new);
+        shopSuppliers.put(CoffeeType.LATTE, LatteShop::new);
+        shopSuppliers.put(CoffeeType.CAPPUCCINO, CappuccinoShop::new);
     }
 
+    // Hands the coffee straight back, so there is no id to track, trace or collect.
     public Coffee placeOrder(CoffeeType type, CoffeeOrderRequest request) {
-        CoffeeShop shop = shops.get(type);
-        if (shop == null) {
+        return shopFor(type).orderCoffee(request);
+    }
+
+    // Reserves an order id in QUEUED state for callers that brew later, e.g. from a work queue.
+    public long registerOrder() {
+        return tracker.register();
+    }
+
+    public long nextOrderId() {
+        return tracker.nextOrderId();
+    }
+
+    // Tracks an id assigned by the caller, so every stage reports the id the customer
+    // sees. Returns false when the tracker is full.
+    public boolean registerOrder(long orderId) {
+        return tracker.register(orderId);
+    }
+
+    public OrderTicket brew(long orderId, CoffeeType type, CoffeeOrderRequest request) {
+        long previousOrderId = OrderTrace.bind(orderId);
+        try (OrderTrace.Span span = OrderTrace.span(OrderStage.BREW)) {
+            CoffeeShop shop = shopFor(type);
+            tracker.advance(orderId, OrderStatus.QUEUED, OrderStatus.BREWING);
+            Coffee coffee = shop.orderCoffee(request);
+            tracker.advance(orderId, OrderStatus.BREWING, OrderStatus.READY);
+            return new OrderTicket(orderId, coffee);
+        } catch (RuntimeException ex) {
+            tracker.cancel(orderId);
+            throw ex;
+        } finally {
+            OrderTrace.restore(previousOrderId);
+        }
+    }
+
+    public boolean collect(long orderId) {
+        return tracker.advance(orderId, OrderStatus.READY, OrderStatus.COLLECTED);
+    }
+
+    public OrderTracker tracker() {
+        return tracker;
+    }
+
+    private CoffeeShop shopFor(CoffeeType type) {
+        Supplier<CoffeeShop> supplier = shopSuppliers.get(type);
+        if (supplier == null) {
             throw new IllegalArgumentException("No shop available for type: " + type);
         }
-        return shop.orderCoffee(request);
+        CoffeeShop shop = shops.get(type.ordinal());
+        if (shop == null) {
+            shops.compareAndSet(type.ordinal(), null, supplier.get());
+            shop = shops.get(type.ordinal());
+        }
+        return shop;
     }
 }
@@ -0,0 +1,28 @@
+package lab2.domain;
+
+import java.util.Objects;
+
+import lab2.models.Coffee;
+
+public final class OrderTicket {
+    private final long orderId;
+    private final Coffee coffee;
+
+    public OrderTicket(long orderId, Coffee coffee) {
+        this.orderId = orderId;
+        this.coffee = Objects.requireNonNull(coffee, "coffee");
+    }
+
+    public long orderId() {
+        return orderId;
+    }
+
+    public Coffee coffee() {
+        return coffee;
+    }
+
+    @Override
+    public String toString() {
+        return "Order #" + orderId + ": " + coffee;
+    }
+}
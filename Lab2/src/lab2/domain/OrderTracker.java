@@ -0,0 +1,153 @@
+package lab2.domain;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lab2.models.OrderStatus;
+
+// Tracks every order from QUEUED to COLLECTED by id. Each entry is a single long
+// holding the status and the time of its last transition, so pickup-screen
+// lookups are a couple of array reads. Collected orders stay visible for
+// collectedTtl; orders that are never brewed or picked up are dropped after the
+// longer abandonedTtl. Both expire lazily on lookup and by periodic sweeps.
+// Status only moves one step at a time, QUEUED -> BREWING -> READY -> COLLECTED.
+public final class OrderTracker {
+    private static final int STATUS_BITS = 3;
+    private static final long STATUS_MASK = (1L << STATUS_BITS) - 1;
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    private final ConcurrentLongLongMap orders;
+    private final AtomicLong nextOrderId = new AtomicLong(1);
+    private final AtomicLong registrations = new AtomicLong();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private final long collectedTtlMillis;
+    private final long abandonedTtlMillis;
+    private final int sweepInterval;
+    private final long originNanos = System.nanoTime();
+
+    public OrderTracker(int capacity, Duration collectedTtl, Duration abandonedTtl) {
+        if (abandonedTtl.compareTo(collectedTtl) < 0) {
+            throw new IllegalArgumentException("Abandoned orders must outlive collected ones");
+        }
+        this.orders = new ConcurrentLongLongMap(capacity);
+        this.collectedTtlMillis = collectedTtl.toMillis();
+        this.abandonedTtlMillis = abandonedTtl.toMillis();
+        this.sweepInterval = Math.max(1, capacity / 8);
+    }
+
+    public long register() {
+        long orderId = nextOrderId();
+        if (!register(orderId)) {
+            throw new IllegalStateException("Order tracker is full");
+        }
+        return orderId;
+    }
+
+    // Hands out an id without tracking it yet, e.g. to trace an order before it is admitted.
+    public long nextOrderId() {
+        return nextOrderId.getAndIncrement();
+    }
+
+    // Tracks an id from nextOrderId() or one assigned elsewhere, e.g. by the front
+    // counter; the two sources must not be mixed on the same tracker, and each id
+    // may be tracked once. Returns false when the tracker is full.
+    public boolean register(long orderId) {
+        if (orderId <= 0) {
+            throw new IllegalArgumentException("Order id must be positive: " + orderId);
+        }
+        if (orders.get(orderId) != ConcurrentLongLongMap.ABSENT) {
+            throw new IllegalArgumentException("Order #" + orderId + " is already tracked");
+        }
+        if (registrations.incrementAndGet() % sweepInterval == 0) {
+            expireStale();
+        }
+        long value = pack(OrderStatus.QUEUED, nowMillis());
+        if (orders.insert(orderId, value)) {
+            return true;
+        }
+        sweep(true);
+        return orders.insert(orderId, value);
+    }
+
+    // Moves an order from one status to the next; returns false if it is unknown or not in that status.
+    public boolean advance(long orderId, OrderStatus from, OrderStatus next) {
+        if (next.ordinal() != from.ordinal() + 1) {
+            throw new IllegalArgumentException("Cannot move an order from " + from + " to " + next);
+        }
+        while (true) {
+            long current = orders.get(orderId);
+            if (current == ConcurrentLongLongMap.ABSENT || decodeStatus(current) != from) {
+                return false;
+            }
+            if (orders.compareAndSet(orderId, current, pack(next, nowMillis()))) {
+                return true;
+            }
+        }
+    }
+
+    public Optional<OrderStatus> statusOf(long orderId) {
+        long value = orders.get(orderId);
+        if (value == ConcurrentLongLongMap.ABSENT) {
+            return Optional.empty();
+        }
+        if (isExpired(value, nowMillis())) {
+            orders.remove(orderId, value);
+            return Optional.empty();
+        }
+        return Optional.of(decodeStatus(value));
+    }
+
+    // Drops an order that never completed, e.g. because brewing failed.
+    public boolean cancel(long orderId) {
+        while (true) {
+            long current = orders.get(orderId);
+            if (current == ConcurrentLongLongMap.ABSENT) {
+                return false;
+            }
+            if (orders.remove(orderId, current)) {
+                return true;
+            }
+        }
+    }
+
+    public int expireStale() {
+        return sweep(false);
+    }
+
+    // Only one thread sweeps at a time; others skip the sweep unless they need the room.
+    private int sweep(boolean waitForTurn) {
+        while (!sweeping.compareAndSet(false, true)) {
+            if (!waitForTurn) {
+                return 0;
+            }
+            Thread.onSpinWait();
+        }
+        try {
+            long now = nowMillis();
+            return orders.removeIf((orderId, value) -> isExpired(value, now));
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    private boolean isExpired(long value, long now) {
+        long ttl = decodeStatus(value) == OrderStatus.COLLECTED ? collectedTtlMillis : abandonedTtlMillis;
+        return now - (value >>> STATUS_BITS) >= ttl;
+    }
+
+    private long nowMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - originNanos);
+    }
+
+    // Status is stored as ordinal + 1 so a packed entry is never zero.
+    private static long pack(OrderStatus status, long millis) {
+        return (millis << STATUS_BITS) | (status.ordinal() + 1);
+    }
+
+    private static OrderStatus decodeStatus(long value) {
+        return STATUSES[(int) (value & STATUS_MASK) - 1];
+    }
+}
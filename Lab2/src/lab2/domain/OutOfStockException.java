@@ -0,0 +1,16 @@
+package lab2.domain;
+
+public class OutOfStockException extends IllegalStateException {
+    private static final long serialVersionUID = 1L;
+
+    private final String ingredient;
+
+    public OutOfStockException(String ingredient) {
+        super("Out of stock: " + ingredient);
+        this.ingredient = ingredient;
+    }
+
+    public String getIngredient() {
+        return ingredient;
+    }
+}
@@ -1,33 +1,48 @@
 package lab2.factory;
 
 import lab2.domain.CoffeeOrderRequest;
+import lab2.domain.IngredientInventory;
 import lab2.domain.RecipeRegistry;
 import lab2.models.Coffee;
 import lab2.models.CoffeeRecipe;
 import lab2.models.CoffeeType;
+import lab2.telemetry.OrderStage;
+import lab2.telemetry.OrderTrace;
 
 abstract class RecipeBackedFactory implements CoffeeFactory {
     private final RecipeRegistry registry = RecipeRegistry.getInstance();
+    private final IngredientInventory inventory = IngredientInventory.getInstance();
 
     @Override
     public Coffee brewCoffee(CoffeeOrderRequest request) {
-        CoffeeRecipe recipe = registry.lookup(supportedType());
-
-        Coffee.Builder builder = Coffee.builder()
-            .name(recipe.getName())
-            .size(request.size().orElse(recipe.getDefaultSize()))
-            .milkType(request.milkType().orElse(recipe.getDefaultMilk()))
-            .takeaway(request.takeaway());
-
-        if (!recipe.getDefaultAddOns().isEmpty()) {
-            builder.addOns(recipe.getDefaultAddOns());
+        CoffeeRecipe recipe;
+        try (OrderTrace.Span span = OrderTrace.span(OrderStage.RECIPE_LOOKUP)) {
+            recipe = registry.lookup(supportedType());
         }
-        if (!request.addOns().isEmpty()) {
-            builder.addOns(request.addOns());
+
+        Coffee coffee;
+        try (OrderTrace.Span span = OrderTrace.span(OrderStage.BUILD)) {
+            Coffee.Builder builder = Coffee.builder()
+                .name(recipe.getName())
+                .size(request.size().orElse(recipe.getDefaultSize()))
+                .milkType(request.milkType().orElse(recipe.getDefaultMilk()))
+                .takeaway(request.takeaway());
+
+            if (!recipe.getDefaultAddOns().isEmpty()) {
+                builder.addOns(recipe.getDefaultAddOns());
+            }
+            if (!request.addOns().isEmpty()) {
+                builder.addOns(request.addOns());
+            }
+
+            applySpecialTouch(builder, request, recipe);
+            coffee = builder.build();
         }
 
-        applySpecialTouch(builder, request, recipe);
-        return builder.build();
+        try (OrderTrace.Span span = OrderTrace.span(OrderStage.INVENTORY)) {
+            inventory.reserve(coffee);
+        }
+        return coffee;
     }
 
     protected void applySpecialTouch(Coffee.Builder builder, CoffeeOrderRequest request, CoffeeRecipe recipe) {
@@ -0,0 +1,194 @@
+package lab2.ipc;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+// Single-producer/single-consumer ring buffer over a memory-mapped file, meant to
+// be shared by two processes on the same machine.
+//
+// Layout: a header (magic, slot count, slot size), the producer and consumer
+// sequences on their own cache lines, then the slots. Each slot holds an int
+// length followed by the payload. The producer writes a slot and then publishes
+// it with a release store of its sequence; the consumer reads with an acquire
+// load, so a slot is never seen half written. Both sequences live in the file,
+// so either side can crash and resume where it stopped. The consumer advances
+// only after its handler returns, which makes delivery at-least-once.
+//
+// Each side holds an exclusive lock on its own byte of the header for as long as
+// the ring is open, so a second producer or consumer fails fast instead of
+// silently corrupting the sequences.
+public final class MappedRingBuffer implements AutoCloseable {
+    public enum Side {
+        PRODUCER,
+        CONSUMER
+    }
+
+    private static final int MAGIC = 0x4C324952;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int SLOT_COUNT_OFFSET = 4;
+    private static final int SLOT_SIZE_OFFSET = 8;
+    private static final int PRODUCER_OFFSET = 64;
+    private static final int CONSUMER_OFFSET = 128;
+    private static final int HEADER_SIZE = 192;
+    private static final int LENGTH_SIZE = Integer.BYTES;
+    private static final long INIT_LOCK_POSITION = 0;
+    private static final long PRODUCER_LOCK_POSITION = 1;
+    private static final long CONSUMER_LOCK_POSITION = 2;
+
+    private static final VarHandle SEQUENCE =
+        MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final FileChannel channel;
+    private final FileLock sideLock;
+    private final Side side;
+    private final MappedByteBuffer buffer;
+    private final int slotCount;
+    private final int slotSize;
+
+    // Each side only writes its own sequence, so it can keep a local copy.
+    private long producerSequence;
+    private long consumerSequence;
+
+    private MappedRingBuffer(
+        FileChannel channel,
+        FileLock sideLock,
+        Side side,
+        MappedByteBuffer buffer,
+        int slotCount,
+        int slotSize
+    ) {
+        this.channel = channel;
+        this.sideLock = sideLock;
+        this.side = side;
+        this.buffer = buffer;
+        this.slotCount = slotCount;
+        this.slotSize = slotSize;
+        this.producerSequence = (long) SEQUENCE.getAcquire(buffer, PRODUCER_OFFSET);
+        this.consumerSequence = (long) SEQUENCE.getAcquire(buffer, CONSUMER_OFFSET);
+    }
+
+    public static MappedRingBuffer open(Path file, int slotCount, int slotSize, Side side) throws IOException {
+        if (slotCount <= 0 || slotSize <= LENGTH_SIZE || slotSize % Long.BYTES != 0) {
+            throw new IllegalArgumentException("Slot count must be positive and slot size a multiple of 8 above 4");
+        }
+        long fileSize = HEADER_SIZE + (long) slotCount * slotSize;
+        FileChannel channel = FileChannel.open(
+            file,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.READ,
+            StandardOpenOption.WRITE
+        );
+        FileLock sideLock = null;
+        try (FileLock initLock = channel.lock(INIT_LOCK_POSITION, 1, false)) {
+            sideLock = lockSide(channel, side);
+            if (sideLock == null) {
+                throw new IllegalStateException("Another " + side + " already has ring file " + file + " open");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+            buffer.order(ByteOrder.nativeOrder());
+            // The magic is written last, so a creator that died mid-setup leaves a fresh file.
+            if (buffer.getInt(MAGIC_OFFSET) == 0) {
+                buffer.putInt(SLOT_COUNT_OFFSET, slotCount);
+                buffer.putInt(SLOT_SIZE_OFFSET, slotSize);
+                buffer.putInt(MAGIC_OFFSET, MAGIC);
+                buffer.force();
+            } else if (buffer.getInt(MAGIC_OFFSET) != MAGIC
+                || buffer.getInt(SLOT_COUNT_OFFSET) != slotCount
+                || buffer.getInt(SLOT_SIZE_OFFSET) != slotSize) {
+                throw new IllegalStateException("Ring file " + file + " has a different layout");
+            }
+            return new MappedRingBuffer(channel, sideLock, side, buffer, slotCount, slotSize);
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    // Returns null when another process, or another ring in this JVM, holds the side.
+    private static FileLock lockSide(FileChannel channel, Side side) throws IOException {
+        long position = side == Side.PRODUCER ? PRODUCER_LOCK_POSITION : CONSUMER_LOCK_POSITION;
+        try {
+            return channel.tryLock(position, 1, false);
+        } catch (OverlappingFileLockException ex) {
+            return null;
+        }
+    }
+
+    public int maxPayload() {
+        return slotSize - LENGTH_SIZE;
+    }
+
+    // Sequence the next offer will publish; producer side only.
+    public long nextSequence() {
+        requireSide(Side.PRODUCER);
+        return producerSequence;
+    }
+
+    public boolean offer(byte[] payload) {
+        requireSide(Side.PRODUCER);
+        if (payload.length > maxPayload()) {
+            throw new IllegalArgumentException("Payload of " + payload.length + " bytes exceeds " + maxPayload());
+        }
+        long consumed = (long) SEQUENCE.getAcquire(buffer, CONSUMER_OFFSET);
+        if (producerSequence - consumed >= slotCount) {
+            return false;
+        }
+        int offset = slotOffset(producerSequence);
+        buffer.putInt(offset, payload.length);
+        buffer.put(offset + LENGTH_SIZE, payload);
+        producerSequence++;
+        SEQUENCE.setRelease(buffer, PRODUCER_OFFSET, producerSequence);
+        return true;
+    }
+
+    public void put(byte[] payload, WaitStrategy waitStrategy) {
+        int attempt = 0;
+        while (!offer(payload)) {
+            waitStrategy.idle(attempt++);
+        }
+    }
+
+    // Hands the next payload to the handler; returns false when the ring is empty.
+    public boolean poll(Consumer<byte[]> handler) {
+        requireSide(Side.CONSUMER);
+        long published = (long) SEQUENCE.getAcquire(buffer, PRODUCER_OFFSET);
+        if (consumerSequence >= published) {
+            return false;
+        }
+        int offset = slotOffset(consumerSequence);
+        byte[] payload = new byte[buffer.getInt(offset)];
+        buffer.get(offset + LENGTH_SIZE, payload);
+        handler.accept(payload);
+        consumerSequence++;
+        SEQUENCE.setRelease(buffer, CONSUMER_OFFSET, consumerSequence);
+        return true;
+    }
+
+    private void requireSide(Side required) {
+        if (side != required) {
+            throw new IllegalStateException("Ring was opened as " + side + ", not " + required);
+        }
+    }
+
+    private int slotOffset(long sequence) {
+        return HEADER_SIZE + (int) (sequence % slotCount) * slotSize;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            sideLock.release();
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package lab2.ipc;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import lab2.domain.CoffeeOrderRequest;
+import lab2.domain.OrderResult;
+import lab2.domain.OrderTicket;
+import lab2.models.Coffee;
+import lab2.models.CoffeeType;
+import lab2.models.Size;
+
+// Binary wire format for orders and completions carried by MappedRingBuffer.
+public final class OrderCodec {
+    // Upper bound on what brewing adds to an order on the wire: the coffee name,
+    // the default milk, recipe add-ons and the shop's finishing touch.
+    public static final int COMPLETION_HEADROOM = 64;
+
+    private static final byte NO_SIZE = -1;
+    private static final byte ACCEPTED = -1;
+    // Keeps a rejection small enough for any slot, whatever the reason quotes.
+    private static final int MAX_REASON_LENGTH = 120;
+
+    private OrderCodec() {
+    }
+
+    // Largest order that still leaves room for its completion in a slot of maxPayload bytes.
+    public static int maxOrderPayload(int maxPayload) {
+        return maxPayload - COMPLETION_HEADROOM;
+    }
+
+    public static byte[] encodeOrder(long orderId, CoffeeType type, CoffeeOrderRequest request) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(orderId);
+            out.writeByte(type.ordinal());
+            out.writeByte(request.size().map(size -> (byte) size.ordinal()).orElse(NO_SIZE));
+            out.writeBoolean(request.milkType().isPresent());
+            if (request.milkType().isPresent()) {
+                out.writeUTF(request.milkType().get());
+            }
+            writeStrings(out, request.addOns());
+            out.writeBoolean(request.takeaway());
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static Order decodeOrder(byte[] payload) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            long orderId = in.readLong();
+            CoffeeType type = CoffeeType.values()[in.readByte()];
+            CoffeeOrderRequest.Builder builder = CoffeeOrderRequest.builder();
+            byte size = in.readByte();
+            if (size != NO_SIZE) {
+                builder.size(Size.values()[size]);
+            }
+            if (in.readBoolean()) {
+                builder.milkType(in.readUTF());
+            }
+            builder.addOns(readStrings(in));
+            builder.takeaway(in.readBoolean());
+            return new Order(orderId, type, builder.build());
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    public static byte[] encodeCompletion(long orderId, OrderResult result) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(orderId);
+            if (result.isAccepted()) {
+                Coffee coffee = result.coffee().orElseThrow();
+                out.writeByte(ACCEPTED);
+                out.writeUTF(coffee.getName());
+                out.writeByte(coffee.getSize().ordinal());
+                out.writeUTF(coffee.getMilkType());
+                writeStrings(out, coffee.getAddOns());
+                out.writeBoolean(coffee.isTakeaway());
+            } else {
+                out.writeByte(result.rejection().orElseThrow().ordinal());
+                out.writeUTF(truncate(result.reason() == null ? "" : result.reason()));
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static Completion decodeCompletion(byte[] payload) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            long orderId = in.readLong();
+            byte kind = in.readByte();
+            if (kind != ACCEPTED) {
+                OrderResult.Rejection rejection = OrderResult.Rejection.values()[kind];
+                return new Completion(orderId, OrderResult.rejected(rejection, in.readUTF()));
+            }
+            Coffee coffee = Coffee.builder()
+                .name(in.readUTF())
+                .size(Size.values()[in.readByte()])
+                .milkType(in.readUTF())
+                .addOns(readStrings(in))
+                .takeaway(in.readBoolean())
+                .build();
+            return new Completion(orderId, OrderResult.accepted(new OrderTicket(orderId, coffee)));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static String truncate(String reason) {
+        return reason.length() <= MAX_REASON_LENGTH ? reason : reason.substring(0, MAX_REASON_LENGTH - 3) + "...";
+    }
+
+    private static void writeStrings(DataOutputStream out, List<String> values) throws IOException {
+        out.writeShort(values.size());
+        for (String value : values) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static List<String> readStrings(DataInputStream in) throws IOException {
+        int count = in.readUnsignedShort();
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(in.readUTF());
+        }
+        return values;
+    }
+
+    public static final class Order {
+        private final long orderId;
+        private final CoffeeType type;
+        private final CoffeeOrderRequest request;
+
+        private Order(long orderId, CoffeeType type, CoffeeOrderRequest request) {
+            this.orderId = orderId;
+            this.type = type;
+            this.request = request;
+        }
+
+        public long orderId() {
+            return orderId;
+        }
+
+        public CoffeeType type() {
+            return type;
+        }
+
+        public CoffeeOrderRequest request() {
+            return request;
+        }
+    }
+
+    public static final class Completion {
+        private final long orderId;
+        private final OrderResult result;
+
+        private Completion(long orderId, OrderResult result) {
+            this.orderId = orderId;
+            this.result = result;
+        }
+
+        public long orderId() {
+            return orderId;
+        }
+
+        public OrderResult result() {
+            return result;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package lab2.ipc;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import lab2.domain.CoffeeOrderRequest;
+import lab2.domain.OrderGateway;
+import lab2.domain.OrderResult;
+import lab2.models.CoffeeType;
+
+// Front counter side of the cross-process handoff: publishes orders to the
+// brewing back end and waits for the matching completion. Order ids come from
+// the order ring's sequence, so they stay unique across restarts.
+public final class RemoteCounter implements OrderGateway, AutoCloseable {
+    private static final String ORDERS_FILE = "orders.ring";
+    private static final String COMPLETIONS_FILE = "completions.ring";
+    private static final int SLOT_COUNT = 1024;
+    private static final int SLOT_SIZE = 512;
+
+    private final MappedRingBuffer orders;
+    private final MappedRingBuffer completions;
+    private final WaitStrategy waitStrategy;
+
+    private RemoteCounter(MappedRingBuffer orders, MappedRingBuffer completions, WaitStrategy waitStrategy) {
+        this.orders = orders;
+        this.completions = completions;
+        this.waitStrategy = waitStrategy;
+    }
+
+    public static RemoteCounter open(Path directory, WaitStrategy waitStrategy) throws IOException {
+        MappedRingBuffer orders = openOrderRing(directory, MappedRingBuffer.Side.PRODUCER);
+        try {
+            return new RemoteCounter(
+                orders,
+                openCompletionRing(directory, MappedRingBuffer.Side.CONSUMER),
+                waitStrategy
+            );
+        } catch (IOException | RuntimeException ex) {
+            orders.close();
+            throw ex;
+        }
+    }
+
+    public static MappedRingBuffer openOrderRing(Path directory, MappedRingBuffer.Side side) throws IOException {
+        return MappedRingBuffer.open(directory.resolve(ORDERS_FILE), SLOT_COUNT, SLOT_SIZE, side);
+    }
+
+    public static MappedRingBuffer openCompletionRing(Path directory, MappedRingBuffer.Side side) throws IOException {
+        return MappedRingBuffer.open(directory.resolve(COMPLETIONS_FILE), SLOT_COUNT, SLOT_SIZE, side);
+    }
+
+    @Override
+    public OrderResult placeOrder(CoffeeType type, CoffeeOrderRequest request, Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        long orderId = orders.nextSequence() + 1;
+        byte[] payload;
+        try {
+            payload = OrderCodec.encodeOrder(orderId, type, request);
+        } catch (UncheckedIOException ex) {
+            return OrderResult.rejected(OrderResult.Rejection.INVALID_ORDER, "Order cannot be encoded: " + ex.getMessage());
+        }
+        if (payload.length > OrderCodec.maxOrderPayload(orders.maxPayload())) {
+            return OrderResult.rejected(
+                OrderResult.Rejection.INVALID_ORDER,
+                "Order of " + payload.length + " bytes is too large for the brewing back end"
+            );
+        }
+
+        int attempt = 0;
+        while (!orders.offer(payload)) {
+            if (System.nanoTime() - deadline >= 0) {
+                return OrderResult.rejected(OrderResult.Rejection.QUEUE_FULL, "Brewing back end is not keeping up");
+            }
+            waitStrategy.idle(attempt++);
+        }
+
+        // Completions for orders we already gave up on are drained and dropped here.
+        OrderResult[] result = new OrderResult[1];
+        attempt = 0;
+        while (result[0] == null) {
+            boolean received = completions.poll(bytes -> {
+                OrderCodec.Completion completion = OrderCodec.decodeCompletion(bytes);
+                if (completion.orderId() == orderId) {
+                    result[0] = completion.result();
+                }
+            });
+            if (received) {
+                attempt = 0;
+            } else if (System.nanoTime() - deadline >= 0) {
+                return OrderResult.rejected(
+                    OrderResult.Rejection.DEADLINE_EXCEEDED,
+                    "No completion from the brewing back end for order #" + orderId
+                );
+            } else {
+                waitStrategy.idle(attempt++);
+            }
+        }
+        return result[0];
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            orders.close();
+        } finally {
+            completions.close();
+        }
+    }
+}
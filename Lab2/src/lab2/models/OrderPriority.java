@@ -0,0 +1,8 @@
+package lab2.models;
+
+// Declared from most to least urgent.
+public enum OrderPriority {
+    MOBILE_PREPAID,
+    TAKEAWAY,
+    DINE_IN
+}
@@ -0,0 +1,8 @@
+package lab2.models;
+
+public enum OrderStatus {
+    QUEUED,
+    BREWING,
+    READY,
+    COLLECTED
+}
@@ -0,0 +1,9 @@
+package lab2.telemetry;
+
+public enum OrderStage {
+    ADMISSION,
+    BREW,
+    RECIPE_LOOKUP,
+    BUILD,
+    INVENTORY
+}
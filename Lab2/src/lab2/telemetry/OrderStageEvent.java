@@ -0,0 +1,23 @@
+package lab2.telemetry;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name(OrderStageEvent.NAME)
+@Label("Order Stage")
+@Category({"Lab2", "Orders"})
+@Description("Time spent by one order in one stage of the order pipeline")
+@StackTrace(false)
+public final class OrderStageEvent extends Event {
+    public static final String NAME = "lab2.OrderStage";
+
+    @Label("Order Id")
+    long orderId;
+
+    @Label("Stage")
+    String stage;
+}
@@ -0,0 +1,65 @@
+package lab2.telemetry;
+
+// Lightweight per-order trace spans recorded as OrderStageEvents. The order id
+// is bound to the current thread while an order is being brewed, so nested
+// stages are correlated without passing the id through every call. Stages run
+// outside any order are not recorded, since they cannot be correlated. When the
+// event is disabled in the running recording a span costs a couple of checks.
+public final class OrderTrace {
+    private static final long NO_ORDER = 0L;
+    private static final ThreadLocal<long[]> CURRENT_ORDER = ThreadLocal.withInitial(() -> new long[] {NO_ORDER});
+
+    private OrderTrace() {
+    }
+
+    public static long currentOrderId() {
+        return CURRENT_ORDER.get()[0];
+    }
+
+    // Returns the previously bound id, to be handed back to restore().
+    public static long bind(long orderId) {
+        long[] slot = CURRENT_ORDER.get();
+        long previous = slot[0];
+        slot[0] = orderId;
+        return previous;
+    }
+
+    public static void restore(long previousOrderId) {
+        CURRENT_ORDER.get()[0] = previousOrderId;
+    }
+
+    public static Span span(OrderStage stage) {
+        return new Span(stage, currentOrderId());
+    }
+
+    public static Span span(OrderStage stage, long orderId) {
+        return new Span(stage, orderId);
+    }
+
+    public static final class Span implements AutoCloseable {
+        private final OrderStageEvent event = new OrderStageEvent();
+        private final OrderStage stage;
+        private final long orderId;
+
+        private Span(OrderStage stage, long orderId) {
+            this.stage = stage;
+            this.orderId = orderId;
+            if (orderId != NO_ORDER && event.isEnabled()) {
+                event.begin();
+            }
+        }
+
+        @Override
+        public void close() {
+            if (orderId == NO_ORDER || !event.isEnabled()) {
+                return;
+            }
+            event.end();
+            if (event.shouldCommit()) {
+                event.orderId = orderId;
+                event.stage = stage.name();
+                event.commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package lab2.telemetry;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import jdk.jfr.EventType;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+// Offline analyzer for order pipeline recordings. Prints per-stage latency
+// percentiles, or every stage of one order when an order id is given. Stages
+// faster than the recording's threshold are never written, so the report
+// prints that threshold and its numbers then describe the slow stages only.
+//
+//   java lab2.telemetry.StageReport orders.jfr [orderId]
+public final class StageReport {
+    private static final Set<String> STAGE_EVENTS = Set.of(OrderStageEvent.NAME, "lab1.PipelineStage");
+    private static final String ACTIVE_SETTING = "jdk.ActiveSetting";
+
+    private StageReport() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("usage: StageReport <recording.jfr> [orderId]");
+            System.exit(1);
+        }
+        Path recording = Path.of(args[0]);
+        if (args.length > 1) {
+            printOrder(recording, Long.parseLong(args[1]));
+        } else {
+            printStages(recording);
+        }
+    }
+
+    private static void printStages(Path recording) throws IOException {
+        Map<String, List<Long>> durationsByStage = new TreeMap<>();
+        Map<String, String> thresholds = new TreeMap<>();
+        try (RecordingFile file = new RecordingFile(recording)) {
+            Map<Long, String> eventNames = new HashMap<>();
+            for (EventType type : file.readEventTypes()) {
+                eventNames.put(type.getId(), type.getName());
+            }
+            while (file.hasMoreEvents()) {
+                RecordedEvent event = file.readEvent();
+                String name = event.getEventType().getName();
+                if (ACTIVE_SETTING.equals(name) && "threshold".equals(event.getString("name"))) {
+                    String target = eventNames.get(event.getLong("id"));
+                    if (STAGE_EVENTS.contains(target)) {
+                        thresholds.put(target, event.getString("value"));
+                    }
+                } else if (STAGE_EVENTS.contains(name)) {
+                    durationsByStage
+                        .computeIfAbsent(stageOf(event), stage -> new ArrayList<>())
+                        .add(event.getDuration().toNanos());
+                }
+            }
+        }
+        if (durationsByStage.isEmpty()) {
+            System.out.println("No order stage events in " + recording);
+            return;
+        }
+
+        printThresholds(thresholds);
+        System.out.printf("%-22s %8s %10s %10s %10s %10s %10s %12s%n",
+            "stage", "count", "mean us", "p50 us", "p90 us", "p99 us", "max us", "total ms");
+        for (Map.Entry<String, List<Long>> entry : durationsByStage.entrySet()) {
+            List<Long> durations = entry.getValue();
+            durations.sort(null);
+            long total = 0;
+            for (long duration : durations) {
+                total += duration;
+            }
+            System.out.printf("%-22s %8d %10.1f %10.1f %10.1f %10.1f %10.1f %12.2f%n",
+                entry.getKey(),
+                durations.size(),
+                micros(total / durations.size()),
+                micros(percentile(durations, 50)),
+                micros(percentile(durations, 90)),
+                micros(percentile(durations, 99)),
+                micros(durations.get(durations.size() - 1)),
+                total / 1_000_000.0);
+        }
+    }
+
+    // A zero threshold records every stage; anything higher drops the fast ones.
+    private static void printThresholds(Map<String, String> thresholds) {
+        boolean sampled = false;
+        for (Map.Entry<String, String> threshold : thresholds.entrySet()) {
+            System.out.println(threshold.getKey() + " threshold: " + threshold.getValue());
+            sampled |= !threshold.getValue().trim().startsWith("0 ");
+        }
+        if (sampled) {
+            System.out.println("Stages faster than the threshold were not recorded, so count, mean and");
+            System.out.println("percentiles cover slow stages only. Record at 0 ms for a full breakdown.");
+        }
+        System.out.println();
+    }
+
+    private static void printOrder(Path recording, long orderId) throws IOException {
+        List<RecordedEvent> stages = new ArrayList<>();
+        try (RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                RecordedEvent event = file.readEvent();
+                if (STAGE_EVENTS.contains(event.getEventType().getName()) && event.getLong("orderId") == orderId) {
+                    stages.add(event);
+                }
+            }
+        }
+        if (stages.isEmpty()) {
+            System.out.println("No stages recorded for order #" + orderId);
+            return;
+        }
+        stages.sort((left, right) -> left.getStartTime().compareTo(right.getStartTime()));
+        System.out.println("Order #" + orderId + " on thread " + stages.get(0).getThread().getJavaName());
+        for (RecordedEvent stage : stages) {
+            Duration offset = Duration.between(stages.get(0).getStartTime(), stage.getStartTime());
+            System.out.printf("  +%9.1f us  %-22s %10.1f us%n",
+                micros(offset.toNanos()), stageOf(stage), micros(stage.getDuration().toNanos()));
+        }
+    }
+
+    private static String stageOf(RecordedEvent event) {
+        String stage = event.getString("stage");
+        return OrderStageEvent.NAME.equals(event.getEventType().getName()) ? stage : "lab1." + stage;
+    }
+
+    private static long percentile(List<Long> sorted, int percent) {
+        int index = (int) Math.ceil(percent / 100.0 * sorted.size()) - 1;
+        return sorted.get(Math.max(0, index));
+    }
+
+    private static double micros(long nanos) {
+        return nanos / 1_000.0;
+    }
+}